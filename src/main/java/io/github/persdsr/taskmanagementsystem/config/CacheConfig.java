@@ -0,0 +1,11 @@
+package io.github.persdsr.taskmanagementsystem.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching(proxyTargetClass = true)
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+}
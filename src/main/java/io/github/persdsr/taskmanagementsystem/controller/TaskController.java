@@ -1,24 +1,48 @@
 package io.github.persdsr.taskmanagementsystem.controller;
 
+import io.github.persdsr.taskmanagementsystem.model.ExportFormat;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
 import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
 import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.CursorPage;
+import io.github.persdsr.taskmanagementsystem.model.dto.user.CommentDTO;
 import io.github.persdsr.taskmanagementsystem.model.request.CommentRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskBatchUpdateRequest;
 import io.github.persdsr.taskmanagementsystem.model.request.TaskPriorityRequest;
 import io.github.persdsr.taskmanagementsystem.model.request.TaskStatusRequest;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskChangesDTO;
 import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskImportReport;
 import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskRequestDTO;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskStatsDTO;
+import io.github.persdsr.taskmanagementsystem.service.TaskExportService;
+import io.github.persdsr.taskmanagementsystem.service.TaskImportService;
 import io.github.persdsr.taskmanagementsystem.service.TaskService;
+import io.github.persdsr.taskmanagementsystem.service.TaskSyncService;
+import io.github.persdsr.taskmanagementsystem.service.stats.TaskStatsService;
+import io.github.persdsr.taskmanagementsystem.service.stream.TaskStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/task")
@@ -26,7 +50,15 @@ import java.util.Map;
 @Tag(name = "TASK")
 public class TaskController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String INCLUDE_COMMENTS = "comments";
+
     private final TaskService taskService;
+    private final TaskExportService taskExportService;
+    private final TaskImportService taskImportService;
+    private final TaskStreamService taskStreamService;
+    private final TaskSyncService taskSyncService;
+    private final TaskStatsService taskStatsService;
 
     @GetMapping("/{id}")
     @Operation(
@@ -36,20 +68,32 @@ public class TaskController {
 
         ### Параметры:
         - **id**: Идентификатор задачи (обязательно).
+        - **fields**: Список возвращаемых полей через запятую (опционально, по умолчанию все). Значения: `title`, `description`, `author`, `performer`, `status`, `priority`. Идентификатор возвращается всегда.
+        - **include**: Встраиваемые связанные данные (опционально). Значения: `comments`. Без этого параметра комментарии не загружаются.
+        - **If-None-Match** (заголовок): ETag из предыдущего ответа (опционально). Если задача с тех пор не менялась и запрошены те же поля, возвращается `304 Not Modified` без тела.
 
         ### Возвращаемое значение:
+        - Заголовок **ETag** с версией задачи и, если указан `fields`, списком выбранных полей (кроме запросов с `include=comments`, так как комментарии не меняют версию задачи).
         - Объект задачи в формате `TaskDTO`, содержащий:
+          - **id**: Идентификатор задачи.
           - **title**: Название задачи.
           - **description**: Описание задачи.
           - **author**: Имя автора задачи.
           - **performer**: Имя исполнителя задачи (если назначен).
           - **status**: Фильтр по статусу задачи (опционально). Значения: `PENDING (В ожидании)`, `IN_PROGRESS (В прогрессе)`, `COMPLETED (Завершен)`.
           - **priority**: Фильтр по приоритету задачи (опционально). Значения: `LOW (Низкий)`, `MEDIUM (Средний)`, `HIGH (Высокий)`.
-          - **comments**: Список комментариев к задаче.
+          - **comments**: Список комментариев к задаче (только при `include=comments`).
+
+        ### Пример запроса:
+        ```
+        GET /api/task/1?include=comments
+        GET /api/task/1?fields=title,status,performer
+        ```
 
         ### Пример ответа:
         ```json
         {
+            "id": 1,
             "title": "Fix bug in authentication",
             "description": "Fix the bug in the login endpoint",
             "author": "John",
@@ -66,20 +110,39 @@ public class TaskController {
         ```
 
         ### Возможные ошибки:
+        - **304 Not Modified**: Задача не менялась с версии из `If-None-Match`.
         - **401 Unauthorized**: Пользователь не авторизован.
         - **403 Forbidden**: У пользователя нет прав на просмотр задачи.
+        - **400 Bad Request**: Неизвестное поле в `fields` или значение `include`.
         - **404 Not Found**: Задача с указанным идентификатором не найдена.
         """
     )
-    private ResponseEntity<TaskDTO> getTaskById(@PathVariable int id) {
-        return new ResponseEntity<>(taskService.getTaskById(id), HttpStatus.OK);
+    private ResponseEntity<TaskDTO> getTaskById(@PathVariable int id,
+                                                @RequestParam(name = "fields", required = false) String fields,
+                                                @RequestParam(name = "include", required = false) String include,
+                                                @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<TaskField> taskFields = TaskField.parse(fields);
+
+        if (includesComments(include)) {
+            return new ResponseEntity<>(taskService.getTaskById(id, taskFields, true), HttpStatus.OK);
+        }
+
+        if (ifNoneMatch != null) {
+            String current = eTag(taskService.getTaskVersion(id), taskFields);
+            if (matchesAny(ifNoneMatch, current)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).build();
+            }
+        }
+
+        TaskDTO task = taskService.getTaskById(id, taskFields, false);
+        return ResponseEntity.ok().eTag(eTag(task.getVersion(), taskFields)).body(task);
     }
 
     @GetMapping("")
     @Operation(
             summary = "Получить список фильтрованных задач",
             description = """
-        Возвращает список задач с возможностью фильтрации по автору, исполнителю, статусу и приоритету. Поддерживает пагинацию.
+        Возвращает список задач с возможностью фильтрации по автору, исполнителю, статусу и приоритету. Поддерживает постраничную и курсорную пагинацию.
 
         ### Параметры:
         - **author**: Фильтр по автору задачи (опционально).
@@ -88,13 +151,19 @@ public class TaskController {
         - **priority**: Фильтр по приоритету задачи (опционально). Значения: `LOW (Низкий)`, `MEDIUM (Средний)`, `HIGH (Высокий)`.
         - **page**: Номер страницы (по умолчанию 0).
         - **size**: Количество задач на странице (по умолчанию 5).
+        - **after**: Курсор для курсорной пагинации (опционально). Если параметр передан, `page` игнорируется, задачи сортируются по идентификатору, а общее количество не подсчитывается. Для первой страницы передайте пустое значение.
+        - **fields**: Список возвращаемых полей через запятую (опционально, по умолчанию все). Значения: `title`, `description`, `author`, `performer`, `status`, `priority`. Идентификатор возвращается всегда.
+        - **include**: Встраиваемые связанные данные (опционально). Значения: `comments`.
 
         ### Возвращаемое значение:
         - Список задач в формате `TaskDTO`.
+        - Заголовок **X-Next-Cursor**: курсор следующей страницы (только при курсорной пагинации и если следующая страница есть).
 
         ### Пример запроса:
         ```
         GET /api/tasks?author=John&status=IN_PROGRESS&page=0&size=5
+        GET /api/tasks?status=IN_PROGRESS&after=aWQ6MTA&size=5
+        GET /api/tasks?fields=title,status,performer&include=comments
         ```
 
         ### Пример ответа:
@@ -122,7 +191,7 @@ public class TaskController {
         ```
 
         ### Возможные ошибки:
-        - **400 Bad Request**: Некорректные параметры запроса (например, неверный статус или приоритет).
+        - **400 Bad Request**: Некорректные параметры запроса (например, неверный статус, приоритет или поле в `fields`).
         - **401 Unauthorized**: Пользователь не авторизован.
         - **403 Forbidden**: У пользователя нет прав на просмотр задач.
         """
@@ -133,8 +202,320 @@ public class TaskController {
             @RequestParam(name = "status", required = false) TaskStatus status,
             @RequestParam(name = "priority", required = false) TaskPriority priority,
             @RequestParam(name = "page", defaultValue = "0") int pageNumber,
-            @RequestParam(name = "size", defaultValue = "5") int pageSize) {
-        return new ResponseEntity<>(taskService.getTasks(author, performer, status, priority, pageNumber, pageSize), HttpStatus.OK);
+            @RequestParam(name = "size", defaultValue = "5") int pageSize,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestParam(name = "include", required = false) String include) {
+        Set<TaskField> taskFields = TaskField.parse(fields);
+        boolean includeComments = includesComments(include);
+
+        if (after != null) {
+            CursorPage<TaskDTO> tasks = taskService.getTasksAfter(author, performer, status, priority, after, pageSize,
+                    taskFields, includeComments);
+            return withNextCursor(tasks);
+        }
+        return new ResponseEntity<>(taskService.getTasks(author, performer, status, priority, pageNumber, pageSize,
+                taskFields, includeComments), HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Выгрузить задачи",
+            description = """
+        Выгружает все задачи, подходящие под фильтры, одним потоком в формате NDJSON (одна задача в формате JSON на строку) или CSV. Задачи сортируются по идентификатору. Данные отправляются по мере чтения из базы, поэтому выгрузка начинается сразу и не зависит от числа задач по потреблению памяти.
+
+        ### Параметры:
+        - **author**: Фильтр по автору задачи (опционально).
+        - **performer**: Фильтр по исполнителю задачи (опционально).
+        - **status**: Фильтр по статусу задачи (опционально). Значения: `PENDING (В ожидании)`, `IN_PROGRESS (В прогрессе)`, `COMPLETED (Завершен)`.
+        - **priority**: Фильтр по приоритету задачи (опционально). Значения: `LOW (Низкий)`, `MEDIUM (Средний)`, `HIGH (Высокий)`.
+        - **format**: Формат выгрузки (по умолчанию `NDJSON`). Значения: `NDJSON`, `CSV`.
+        - **fields**: Список выгружаемых полей через запятую (опционально, по умолчанию все). Значения: `title`, `description`, `author`, `performer`, `status`, `priority`. Идентификатор выгружается всегда, в CSV поля идут в указанном порядке значений.
+
+        ### Возвращаемое значение:
+        - Файл `tasks.ndjson` (`application/x-ndjson`) или `tasks.csv` (`text/csv`, первая строка содержит заголовки столбцов).
+
+        ### Пример запроса:
+        ```
+        GET /api/task/export?status=IN_PROGRESS
+        GET /api/task/export?format=CSV&fields=title,status,performer
+        ```
+
+        ### Пример ответа:
+        ```
+        {"id":1,"title":"Fix bug in authentication","status":"IN_PROGRESS","performer":"Alex"}
+        {"id":2,"title":"Update documentation","status":"IN_PROGRESS","performer":"Bob"}
+        ```
+        ```
+        id,title,performer,status
+        1,Fix bug in authentication,Alex,IN_PROGRESS
+        2,"Update documentation, API",Bob,IN_PROGRESS
+        ```
+
+        ### Возможные ошибки:
+        - **400 Bad Request**: Некорректные параметры запроса (например, неверный формат, статус, приоритет или поле в `fields`).
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на выгрузку задач.
+        """
+    )
+    private ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(name = "author", required = false) String author,
+            @RequestParam(name = "performer", required = false) String performer,
+            @RequestParam(name = "status", required = false) TaskStatus status,
+            @RequestParam(name = "priority", required = false) TaskPriority priority,
+            @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(name = "fields", required = false) String fields) {
+        StreamingResponseBody body = taskExportService.exportTasks(author, performer, status, priority,
+                TaskField.parse(fields), format);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("tasks." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Подписаться на изменения задач",
+            description = """
+        Открывает поток Server-Sent Events, в который сервер отправляет изменения задач текущего пользователя: задач, где он автор или исполнитель (до или после изменения). Заменяет периодический опрос `GET /api/task`: после подключения клиент загружает задачи один раз и дальше применяет полученные события.
+
+        ### Типы событий (`event`):
+        - **TASK_CREATED**, **TASK_UPDATED**, **TASK_DELETED**: Задача создана, изменена или удалена. В `data` передаются идентификатор задачи и ее состояние до (`before`) и после (`after`) изменения.
+        - **TASK_COMMENTED**: К задаче добавлен комментарий. В `data` передаются идентификаторы задачи и комментария и автор комментария.
+        - **resync**: Часть событий не была доставлена (например, когда сервер не успевал их отправлять). Клиент должен заново загрузить задачи.
+
+        Раз в `slay.app.stream.heartbeat-interval` сервер отправляет комментарий `:heartbeat`, чтобы соединение не закрывалось прокси. Если клиент не успевает читать события и его буфер переполняется, сервер закрывает поток. В этом случае, а также по истечении `slay.app.stream.timeout`, клиент должен переподключиться и заново загрузить задачи (`EventSource` переподключается сам).
+
+        ### Пример запроса:
+        ```
+        GET /api/task/stream
+        Accept: text/event-stream
+        ```
+
+        ### Пример ответа:
+        ```
+        :connected
+
+        event:TASK_UPDATED
+        data:{"type":"UPDATED","taskId":1,"before":{"title":"Fix bug","description":null,"status":"PENDING","priority":"HIGH","author":"John","performer":"Alex"},"after":{"title":"Fix bug","description":null,"status":"IN_PROGRESS","priority":"HIGH","author":"John","performer":"Alex"}}
+
+        :heartbeat
+        ```
+
+        ### Возможные ошибки:
+        - **401 Unauthorized**: Пользователь не авторизован.
+        """
+    )
+    private ResponseEntity<SseEmitter> streamTasks() {
+        return ResponseEntity.ok()
+                // Stops proxies such as nginx from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(taskStreamService.subscribe());
+    }
+
+    @GetMapping("/changes")
+    @Operation(
+            summary = "Получить изменения задач с момента последней синхронизации",
+            description = """
+        Возвращает задачи и комментарии, созданные или измененные после курсора, и идентификаторы удаленных. Позволяет клиенту хранить локальную копию задач и не загружать их заново целиком.
+
+        Первый запрос делается без курсора и возвращает все задачи и комментарии. Дальше клиент передает курсор `nextCursor` из предыдущего ответа и повторяет запросы, пока `hasMore` равно `true`. Курсор возвращается всегда, даже если изменений нет; его нужно сохранить для следующей синхронизации.
+
+        Задача или комментарий, измененные несколько раз, возвращаются один раз в текущем состоянии. Изменения транзакций, которые еще выполняются, попадают в одну из следующих синхронизаций, поэтому изменения не теряются.
+
+        ### Параметры:
+        - **since**: Курсор `nextCursor` из предыдущего ответа (опционально, без него возвращаются все задачи).
+        - **size**: Максимальное количество изменений в ответе (по умолчанию 100, не больше `slay.app.sync.max-page-size`).
+
+        ### Возвращаемое значение:
+        - **tasks**: Созданные или измененные задачи в формате `TaskDTO`.
+        - **comments**: Созданные или измененные комментарии с идентификатором задачи.
+        - **deletedTasks**, **deletedComments**: Идентификаторы удаленных задач и комментариев.
+        - **hasMore**: Есть ли еще изменения.
+        - **nextCursor**: Курсор для следующего запроса.
+
+        ### Пример запроса:
+        ```
+        GET /api/task/changes?size=100
+        GET /api/task/changes?since=Y2hhbmdlOjc1MjoxMDQ6MTcyOTI0NjQwMA&size=100
+        ```
+
+        ### Пример ответа:
+        ```json
+        {
+            "tasks": [
+                {
+                    "id": 1,
+                    "title": "Fix bug in authentication",
+                    "description": "Fix the bug in the login endpoint",
+                    "status": "IN_PROGRESS",
+                    "priority": "HIGH",
+                    "author": "John",
+                    "performer": "Alex"
+                }
+            ],
+            "comments": [
+                {
+                    "id": 43,
+                    "taskId": 1,
+                    "text": "Comment text",
+                    "author": "John"
+                }
+            ],
+            "deletedTasks": [7],
+            "deletedComments": [],
+            "hasMore": false,
+            "nextCursor": "Y2hhbmdlOjc2MDoxMTI6MTcyOTI0NjUwMA"
+        }
+        ```
+
+        ### Возможные ошибки:
+        - **400 Bad Request**: Некорректный курсор или размер страницы.
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на просмотр задач.
+        - **410 Gone**: Последняя синхронизация была раньше, чем `slay.app.sync.tombstone-retention` назад, и сведения об удалениях уже очищены. Клиент должен загрузить все задачи заново запросом без курсора.
+        """
+    )
+    private ResponseEntity<TaskChangesDTO> getChanges(@RequestParam(name = "since", required = false) String since,
+                                                      @RequestParam(name = "size", defaultValue = "100") int pageSize) {
+        return ResponseEntity.ok(taskSyncService.getChanges(since, pageSize));
+    }
+
+    @GetMapping("/stats")
+    @Operation(
+            summary = "Получить количество задач по исполнителям, статусам и приоритетам",
+            description = """
+        Возвращает количество задач для каждого сочетания исполнителя, статуса и приоритета. Счетчики хранятся в памяти и обновляются при каждом создании, изменении и удалении задачи, поэтому запрос не обращается к базе данных.
+
+        Счетчики учитывают изменения, сделанные через этот экземпляр приложения, и раз в `slay.app.stats.reconcile-interval` пересчитываются по базе данных. Между пересчетами они могут незначительно расходиться с базой данных, если задачи изменялись в обход приложения.
+
+        ### Параметры:
+        - **performer**: Имя исполнителя (опционально, без него возвращаются счетчики всех исполнителей).
+
+        ### Возвращаемое значение:
+        - **total**: Общее количество задач в ответе.
+        - **counts**: Ненулевые счетчики, отсортированные по исполнителю, статусу и приоритету. У задач без исполнителя поле `performer` равно `null`, у задач без статуса или приоритета поле `status` или `priority` равно `NONE`.
+
+        ### Пример запроса:
+        ```
+        GET /api/task/stats
+        GET /api/task/stats?performer=Alex
+        ```
+
+        ### Пример ответа:
+        ```json
+        {
+            "total": 5,
+            "counts": [
+                {
+                    "performer": "Alex",
+                    "status": "IN_PROGRESS",
+                    "priority": "HIGH",
+                    "count": 2
+                },
+                {
+                    "performer": "Alex",
+                    "status": "COMPLETED",
+                    "priority": "LOW",
+                    "count": 3
+                }
+            ]
+        }
+        ```
+
+        ### Возможные ошибки:
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на просмотр статистики.
+        """
+    )
+    private ResponseEntity<TaskStatsDTO> getStats(@RequestParam(name = "performer", required = false) String performer) {
+        return ResponseEntity.ok(taskStatsService.getStats(performer));
+    }
+
+    @PostMapping("/stats/rebuild")
+    @Operation(
+            summary = "Пересчитать статистику задач",
+            description = """
+        Пересчитывает счетчики задач по базе данных и возвращает новые значения. Нужен для восстановления, например после изменения задач напрямую в базе данных; в остальных случаях счетчики пересчитываются автоматически.
+
+        ### Пример запроса:
+        ```
+        POST /api/task/stats/rebuild
+        ```
+
+        ### Возвращаемое значение:
+        - Статистика в том же формате, что и у `GET /api/task/stats`.
+
+        ### Возможные ошибки:
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на пересчет статистики.
+        """
+    )
+    private ResponseEntity<TaskStatsDTO> rebuildStats() {
+        return ResponseEntity.ok(taskStatsService.rebuildStats());
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Полнотекстовый поиск задач",
+            description = """
+        Ищет задачи по заголовку и описанию. Результаты сортируются по релевантности: совпадения в заголовке весят больше, чем в описании. Поиск комбинируется с теми же фильтрами, что и список задач, и использует курсорную пагинацию.
+
+        ### Параметры:
+        - **q**: Поисковый запрос (обязательно). Поддерживается синтаксис веб-поиска: `"точная фраза"`, `or` и исключение слова через `-`. Встроенный индекс (`slay.app.search.backend=memory`) дополнительно поддерживает поиск по префиксу `auth*`, а фразу ищет как набор слов.
+        - **author**: Фильтр по автору задачи (опционально).
+        - **performer**: Фильтр по исполнителю задачи (опционально).
+        - **status**: Фильтр по статусу задачи (опционально). Значения: `PENDING (В ожидании)`, `IN_PROGRESS (В прогрессе)`, `COMPLETED (Завершен)`.
+        - **priority**: Фильтр по приоритету задачи (опционально). Значения: `LOW (Низкий)`, `MEDIUM (Средний)`, `HIGH (Высокий)`.
+        - **size**: Количество задач на странице (по умолчанию 5).
+        - **after**: Курсор из заголовка `X-Next-Cursor` предыдущего ответа (опционально, без него возвращается первая страница).
+        - **fields**: Список возвращаемых полей через запятую (опционально, по умолчанию все). Значения: `title`, `description`, `author`, `performer`, `status`, `priority`. Идентификатор возвращается всегда.
+
+        ### Возвращаемое значение:
+        - Список задач в формате `TaskDTO`, начиная с наиболее релевантных.
+        - Заголовок **X-Next-Cursor**: курсор следующей страницы (если она есть).
+
+        ### Пример запроса:
+        ```
+        GET /api/task/search?q=authentication bug&status=IN_PROGRESS&size=5
+        GET /api/task/search?q="login endpoint" -documentation&after=cmFuazowLjA2OjE1
+        ```
+
+        ### Пример ответа:
+        ```json
+        [
+            {
+                "id": 1,
+                "title": "Fix bug in authentication",
+                "description": "Fix the bug in the login endpoint",
+                "status": "IN_PROGRESS",
+                "priority": "HIGH",
+                "author": "John",
+                "performer": "Alex"
+            }
+        ]
+        ```
+
+        ### Возможные ошибки:
+        - **400 Bad Request**: Пустой запрос, некорректный курсор, размер страницы, статус, приоритет или поле в `fields`.
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на просмотр задач.
+        """
+    )
+    private ResponseEntity<List<TaskDTO>> searchTasks(
+            @RequestParam(name = "q") String search,
+            @RequestParam(name = "author", required = false) String author,
+            @RequestParam(name = "performer", required = false) String performer,
+            @RequestParam(name = "status", required = false) TaskStatus status,
+            @RequestParam(name = "priority", required = false) TaskPriority priority,
+            @RequestParam(name = "size", defaultValue = "5") int pageSize,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "fields", required = false) String fields) {
+        return withNextCursor(taskService.searchTasks(search, author, performer, status, priority, after, pageSize,
+                TaskField.parse(fields)));
     }
 
 
@@ -177,6 +558,103 @@ public class TaskController {
         return new ResponseEntity<>("Task created successfully", HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Создать несколько задач",
+            description = """
+        Создает задачи из переданного списка за одну транзакцию. Задачи записываются в базу пакетами,
+        поэтому метод подходит для импорта большого количества задач из других трекеров.
+
+        ### Параметры:
+        - **tasks**: Список задач (обязательно, не пустой). Поля каждой задачи:
+          - **title**: Название задачи (обязательно).
+          - **description**: Описание задачи (опционально).
+          - **priority**: Приоритет задачи (опционально, по умолчанию LOW).  Значения: `LOW (Низкий)`, `MEDIUM (Средний)`, `HIGH (Высокий)`
+
+        ### Пример запроса:
+        ```json
+        [
+            {
+                "title": "Fix bug in authentication",
+                "priority": "HIGH"
+            },
+            {
+                "title": "Update documentation",
+                "description": "Describe the batch endpoint"
+            }
+        ]
+        ```
+
+        ### Возвращаемое значение:
+        - Идентификаторы созданных задач в порядке их передачи.
+
+        ### Пример ответа:
+        ```json
+        [101, 102]
+        ```
+
+        ### Возможные ошибки:
+        - **400 Bad Request**: Пустой список или некорректные данные хотя бы одной задачи. В этом случае ни одна задача не создается.
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на создание задач.
+        """
+    )
+    private ResponseEntity<List<Integer>> createTasks(@RequestBody @NotEmpty List<@Valid TaskRequestDTO> tasks) {
+        return new ResponseEntity<>(taskService.addTasks(tasks), HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Импортировать задачи",
+            description = """
+        Импортирует задачи вместе с комментариями из NDJSON: одна задача в формате JSON на строку. Тело запроса читается построчно и записывается порциями, каждая порция в своей транзакции, поэтому размер импорта не ограничен памятью сервера. Строки с ошибками пропускаются и попадают в отчет, остальные задачи сохраняются.
+
+        ### Тело запроса (каждая строка):
+        - **title**: Заголовок задачи (обязательно, до 100 символов).
+        - **description**: Описание задачи (опционально, до 500 символов).
+        - **status**: Статус задачи (опционально, по умолчанию `PENDING`).
+        - **priority**: Приоритет задачи (опционально, по умолчанию `LOW`).
+        - **author**: Имя пользователя автора (опционально, по умолчанию текущий пользователь).
+        - **performer**: Имя пользователя исполнителя (опционально).
+        - **comments**: Комментарии задачи (опционально): **text** (обязательно, до 1000 символов) и **author** (опционально, по умолчанию автор задачи).
+
+        ### Возвращаемое значение:
+        - Отчет об импорте: количество сохраненных задач, количество строк с ошибками и ошибки первых строк с их номерами.
+
+        ### Пример запроса:
+        ```
+        POST /api/task/import
+        Content-Type: application/x-ndjson
+
+        {"title": "Fix bug in authentication", "status": "IN_PROGRESS", "author": "John", "performer": "Alex", "comments": [{"text": "On it", "author": "Alex"}]}
+        {"title": "Update documentation", "priority": "MEDIUM"}
+        {"title": "", "performer": "Nobody"}
+        ```
+
+        ### Пример ответа:
+        ```json
+        {
+            "imported": 2,
+            "failed": 1,
+            "errors": [
+                {
+                    "line": 3,
+                    "message": "title: Title is required"
+                }
+            ]
+        }
+        ```
+
+        ### Возможные ошибки:
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на импорт задач.
+        - **415 Unsupported Media Type**: Тело запроса передано не в формате `application/x-ndjson`.
+        """
+    )
+    private ResponseEntity<TaskImportReport> importTasks(InputStream body) throws IOException {
+        return new ResponseEntity<>(taskImportService.importTasks(body), HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}")
     @Operation(
             summary = "Обновить задачу",
@@ -190,8 +668,10 @@ public class TaskController {
           - **description**: Описание задачи.
           - **status**: Фильтр по статусу задачи (опционально). Значения: `PENDING (В ожидании)`, `IN_PROGRESS (В прогрессе)`, `COMPLETED (Завершен)`.
           - **priority**: Фильтр по приоритету задачи (опционально). Значения: `LOW (Низкий)`, `MEDIUM (Средний)`, `HIGH (Высокий)`.
-          - **author**: Автор задачи.
-          - **performer**: Исполнитель задачи.
+          - **author**: Имя пользователя автора задачи.
+          - **performer**: Имя пользователя исполнителя задачи (`null` снимает исполнителя).
+
+        - **If-Match** (заголовок): ETag, полученный при чтении задачи (опционально). Если задача с тех пор изменилась, возвращается `412 Precondition Failed`.
 
         ### Пример запроса:
         ```json
@@ -210,18 +690,74 @@ public class TaskController {
         ```
 
         ### Возможные ошибки:
-        - **400 Bad Request**: Некорректные данные (например, неверный статус или приоритет).
+        - **400 Bad Request**: Некорректные данные (например, неподдерживаемое поле, неверный статус или приоритет).
         - **401 Unauthorized**: Пользователь не авторизован.
         - **403 Forbidden**: У пользователя нет прав на обновление задачи.
-        - **404 Not Found**: Задача с указанным идентификатором не найдена.
+        - **404 Not Found**: Задача с указанным идентификатором или указанный пользователь не найдены.
+        - **409 Conflict**: Задача была изменена параллельным запросом.
+        - **412 Precondition Failed**: Версия задачи не совпадает с `If-Match`.
         """
     )
     private ResponseEntity<String> updateTask(@Valid @RequestBody Map<String, Object> task,
-                                              @PathVariable("id") int id) {
-        taskService.updateTask(task, id);
+                                              @PathVariable("id") int id,
+                                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        taskService.updateTask(task, id, ifMatch != null ? versionsOf(ifMatch) : null);
         return new ResponseEntity<>("Task updated successfully", HttpStatus.OK);
     }
 
+    @PatchMapping("/batch")
+    @Operation(
+            summary = "Обновить несколько задач",
+            description = """
+        Применяет одни и те же изменения ко всем задачам из списка идентификаторов или ко всем задачам,
+        подходящим под фильтр. Задачи блокируются, читаются и обновляются тремя SQL-запросами, по одному на каждый шаг.
+        За один запрос можно обновить не более 1000 задач (`slay.app.update.max-tasks`).
+
+        ### Параметры:
+        - **ids**: Список идентификаторов задач (указывается либо `ids`, либо `filter`).
+        - **filter**: Фильтр задач (указывается либо `ids`, либо `filter`). Пустой фильтр выбирает все задачи. Поля:
+          - **author**: Имя пользователя автора задачи.
+          - **performer**: Имя пользователя исполнителя задачи.
+          - **status**: Статус задачи. Значения: `PENDING (В ожидании)`, `IN_PROGRESS (В прогрессе)`, `COMPLETED (Завершен)`.
+          - **priority**: Приоритет задачи. Значения: `LOW (Низкий)`, `MEDIUM (Средний)`, `HIGH (Высокий)`.
+        - **changes**: Изменения (обязательно, хотя бы одно поле). Поля:
+          - **status**: Новый статус задачи.
+          - **priority**: Новый приоритет задачи.
+          - **performer**: Имя пользователя нового исполнителя.
+
+        ### Пример запроса:
+        ```json
+        {
+            "filter": {
+                "performer": "John",
+                "status": "IN_PROGRESS"
+            },
+            "changes": {
+                "status": "COMPLETED"
+            }
+        }
+        ```
+
+        ### Возвращаемое значение:
+        - Количество обновленных задач.
+
+        ### Пример ответа:
+        ```
+        500
+        ```
+
+        ### Возможные ошибки:
+        - **400 Bad Request**: Не указаны или указаны одновременно `ids` и `filter`, не указаны изменения, под запрос
+          подходит больше задач, чем разрешено, или данные некорректны.
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на обновление задач.
+        - **404 Not Found**: Пользователь, указанный исполнителем, не найден.
+        """
+    )
+    private ResponseEntity<Integer> updateTasks(@Valid @RequestBody TaskBatchUpdateRequest request) {
+        return new ResponseEntity<>(taskService.updateTasks(request), HttpStatus.OK);
+    }
+
 
     @DeleteMapping("/{id}")
     @Operation(
@@ -231,6 +767,7 @@ public class TaskController {
 
         ### Параметры:
         - **id**: Идентификатор задачи (обязательно).
+        - **If-Match** (заголовок): ETag, полученный при чтении задачи (опционально). Если задача с тех пор изменилась, возвращается `412 Precondition Failed`.
 
         ### Возвращаемое значение:
         - Сообщение об успешном удалении задачи.
@@ -244,10 +781,13 @@ public class TaskController {
         - **401 Unauthorized**: Пользователь не авторизован.
         - **403 Forbidden**: У пользователя нет прав на удаление задачи.
         - **404 Not Found**: Задача с указанным идентификатором не найдена.
+        - **409 Conflict**: Задача была изменена параллельным запросом.
+        - **412 Precondition Failed**: Версия задачи не совпадает с `If-Match`.
         """
     )
-    private ResponseEntity<String> deleteTask(@PathVariable int id) {
-        taskService.deleteTask(id);
+    private ResponseEntity<String> deleteTask(@PathVariable int id,
+                                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        taskService.deleteTask(id, ifMatch != null ? versionsOf(ifMatch) : null);
         return new ResponseEntity<>("Task deleted successfully", HttpStatus.OK);
     }
 
@@ -289,4 +829,119 @@ public class TaskController {
         return new ResponseEntity<>("Comment sent successfully", HttpStatus.OK);
     }
 
+    @GetMapping("/{id}/comments")
+    @Operation(
+            summary = "Получить комментарии задачи",
+            description = """
+        Возвращает комментарии задачи в порядке их создания. Использует курсорную пагинацию по идентификатору комментария, поэтому стоимость запроса не зависит от глубины страницы.
+
+        ### Параметры:
+        - **id**: Идентификатор задачи (обязательно).
+        - **after**: Курсор из заголовка `X-Next-Cursor` предыдущего ответа (опционально, без него возвращается первая страница).
+        - **size**: Количество комментариев на странице (по умолчанию 20).
+
+        ### Возвращаемое значение:
+        - Список комментариев в формате `CommentDTO`.
+        - Заголовок **X-Next-Cursor**: курсор следующей страницы (если она есть).
+
+        ### Пример запроса:
+        ```
+        GET /api/task/1/comments?size=20
+        GET /api/task/1/comments?after=aWQ6NDI&size=20
+        ```
+
+        ### Пример ответа:
+        ```json
+        [
+            {
+                "id": 43,
+                "text": "Comment text",
+                "author": "John"
+            }
+        ]
+        ```
+
+        ### Возможные ошибки:
+        - **400 Bad Request**: Некорректный курсор или размер страницы.
+        - **401 Unauthorized**: Пользователь не авторизован.
+        - **403 Forbidden**: У пользователя нет прав на просмотр комментариев.
+        - **404 Not Found**: Задача с указанным идентификатором не найдена.
+        """
+    )
+    private ResponseEntity<List<CommentDTO>> getComments(@PathVariable("id") int taskId,
+                                                         @RequestParam(name = "after", required = false) String after,
+                                                         @RequestParam(name = "size", defaultValue = "20") int pageSize) {
+        return withNextCursor(taskService.getComments(taskId, after, pageSize));
+    }
+
+    private boolean includesComments(String include) {
+        if (include == null || include.isBlank()) {
+            return false;
+        }
+        if (!INCLUDE_COMMENTS.equalsIgnoreCase(include.trim())) {
+            throw new IllegalArgumentException("Unknown include value: " + include);
+        }
+        return true;
+    }
+
+    /**
+     * Version of the task, followed by the selected fields unless all of them are returned, so that
+     * different projections of one version never share a tag.
+     */
+    private String eTag(long version, Set<TaskField> fields) {
+        if (fields.size() == TaskField.values().length) {
+            return "\"" + version + "\"";
+        }
+        return "\"" + version + "-" + fields.stream()
+                .map(TaskField::getFieldName)
+                .collect(Collectors.joining("+")) + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header names the given tag, weakly compared, or is {@code *}.
+     */
+    private boolean matchesAny(String header, String eTag) {
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versions named by an If-Match header, or {@code null} for {@code *}. Tags of any projection name the
+     * version they were issued for, weak tags and tags we did not issue are ignored.
+     */
+    private Set<Long> versionsOf(String header) {
+        Set<Long> versions = new HashSet<>();
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                return null;
+            }
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                String value = tag.substring(1, tag.length() - 1);
+                int fields = value.indexOf('-');
+                try {
+                    versions.add(Long.parseLong(fields < 0 ? value : value.substring(0, fields)));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return versions;
+    }
+
+    private <T> ResponseEntity<List<T>> withNextCursor(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
 }
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Size;
 import lombok.*;
 
 @Entity(name = "comment")
+@Table(indexes = @Index(name = "idx_comment_task_id_id", columnList = "task_id, id"))
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -13,7 +14,8 @@ import lombok.*;
 @Builder
 public class CommentEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comment_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Text is required")
@@ -6,12 +6,15 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Entity(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "entity.users")
 @AllArgsConstructor
 @NoArgsConstructor
 @Setter
@@ -20,7 +23,8 @@ import java.util.Set;
 public class UserEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private int id;
 
     @NotBlank(message = "Username is required")
@@ -41,6 +45,7 @@ public class UserEntity {
     @OneToMany(mappedBy = "performer")
     private List<TaskEntity> solvedTasks;
 
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "entity.users.roles")
     @ElementCollection(targetClass = Role.class, fetch = FetchType.EAGER)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Enumerated(EnumType.STRING)
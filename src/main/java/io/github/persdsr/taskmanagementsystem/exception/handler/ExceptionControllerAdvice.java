@@ -6,10 +6,13 @@ import io.github.persdsr.taskmanagementsystem.exception.response.*;
 import io.github.persdsr.taskmanagementsystem.model.Code;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.validation.method.ParameterErrors;
 import org.springframework.web.servlet.NoHandlerFoundException;
 
 import java.util.HashMap;
@@ -44,6 +47,11 @@ public class ExceptionControllerAdvice {
 
     }
 
+    @ExceptionHandler(TooManyTasksException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyTasksException(TooManyTasksException ex) {
+        return new ResponseEntity<>(ErrorResponse.builder().error(Error.builder().code(Code.BAD_REQUEST).message("Too many tasks selected, narrow the selection").build()).build(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(UsernameAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleUsernameAlreadyExistsException(UsernameAlreadyExistsException ex) {
         return new ResponseEntity<>(ErrorResponse.builder().error(Error.builder().code(Code.CONFLICT).message("Username already exists").build()).build(), HttpStatus.CONFLICT);
@@ -56,6 +64,21 @@ public class ExceptionControllerAdvice {
 
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex) {
+        return new ResponseEntity<>(ErrorResponse.builder().error(Error.builder().code(Code.PRECONDITION_FAILED).message("Task was modified, reload it and retry").build()).build(), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(SyncCursorExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleSyncCursorExpiredException(SyncCursorExpiredException ex) {
+        return new ResponseEntity<>(ErrorResponse.builder().error(Error.builder().code(Code.GONE).message("Sync cursor expired, reload all tasks").build()).build(), HttpStatus.GONE);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        return new ResponseEntity<>(ErrorResponse.builder().error(Error.builder().code(Code.CONFLICT).message("Concurrent modification, reload and retry").build()).build(), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(NoHandlerFoundException.class)
     public ResponseEntity<String> handleNoHandlerFoundException(NoHandlerFoundException ex) {
         return new ResponseEntity<>("Endpoint not found: " + ex.getRequestURL(), HttpStatus.NOT_FOUND);
@@ -68,4 +91,24 @@ public class ExceptionControllerAdvice {
                 errors.put(error.getField(), error.getDefaultMessage()));
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Map<String, String>> handleMethodValidationExceptions(HandlerMethodValidationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getParameterValidationResults().forEach(result -> {
+            String parameter = result.getMethodParameter().getParameterName();
+            if (result instanceof ParameterErrors parameterErrors) {
+                // errors of a list element are reported as e.g. "tasks[2].title"
+                String prefix = parameterErrors.getContainerIndex() != null
+                        ? parameter + "[" + parameterErrors.getContainerIndex() + "]."
+                        : parameter + ".";
+                parameterErrors.getFieldErrors().forEach(error ->
+                        errors.put(prefix + error.getField(), error.getDefaultMessage()));
+            } else {
+                result.getResolvableErrors().forEach(error ->
+                        errors.put(parameter, error.getDefaultMessage()));
+            }
+        });
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
 }
@@ -5,4 +5,6 @@ public enum Code {
     ACCESS_DENIED,
     BAD_REQUEST,
     CONFLICT,
+    PRECONDITION_FAILED,
+    GONE,
 }
@@ -0,0 +1,43 @@
+package io.github.persdsr.taskmanagementsystem.model;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum TaskField {
+    TITLE("title"),
+    DESCRIPTION("description"),
+    AUTHOR("author"),
+    PERFORMER("performer"),
+    STATUS("status"),
+    PRIORITY("priority");
+
+    private final String fieldName;
+
+    TaskField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Parses a comma separated {@code fields} parameter. A missing or blank value selects every field.
+     */
+    public static Set<TaskField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(TaskField.class);
+        }
+
+        Set<TaskField> result = EnumSet.noneOf(TaskField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            result.add(Arrays.stream(values())
+                    .filter(field -> field.fieldName.equalsIgnoreCase(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown task field: " + trimmed)));
+        }
+        return result;
+    }
+}
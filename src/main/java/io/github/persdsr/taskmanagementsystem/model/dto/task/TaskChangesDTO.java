@@ -0,0 +1,21 @@
+package io.github.persdsr.taskmanagementsystem.model.dto.task;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TaskChangesDTO {
+    /** Current state of the tasks created or changed after the cursor */
+    private List<TaskDTO> tasks = new ArrayList<>();
+    private List<TaskCommentDTO> comments = new ArrayList<>();
+    private List<Integer> deletedTasks = new ArrayList<>();
+    private List<Long> deletedComments = new ArrayList<>();
+
+    /** Whether more changes are ready, the client keeps asking with {@link #nextCursor} until this is false */
+    private boolean hasMore;
+
+    /** Cursor for the next request, also given when nothing changed */
+    private String nextCursor;
+}
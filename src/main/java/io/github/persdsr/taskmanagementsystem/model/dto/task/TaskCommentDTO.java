@@ -0,0 +1,15 @@
+package io.github.persdsr.taskmanagementsystem.model.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCommentDTO {
+    private Long id;
+    private Integer taskId;
+    private String text;
+    private String author;
+}
@@ -1,5 +1,7 @@
 package io.github.persdsr.taskmanagementsystem.model.dto.task;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
 import io.github.persdsr.taskmanagementsystem.model.dto.user.CommentDTO;
 import lombok.Data;
@@ -7,7 +9,9 @@ import lombok.Data;
 import java.util.List;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TaskDTO {
+    private Integer id;
     private String title;
     private String description;
     private String author;
@@ -16,8 +20,18 @@ public class TaskDTO {
     private String priority;
     private List<CommentDTO> comments;
 
+    /** Optimistic lock version, sent as the ETag header instead of the body */
+    @JsonIgnore
+    private Long version;
+
+    /** Search relevance, only set by full-text search and carried in its cursor */
+    @JsonIgnore
+    private Float rank;
+
     public static TaskDTO toModel(TaskEntity taskEntity) {
         TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setId(taskEntity.getId());
+        taskDTO.setVersion(taskEntity.getVersion());
         taskDTO.setTitle(taskEntity.getTitle());
         taskDTO.setDescription(taskEntity.getDescription());
         taskDTO.setAuthor(taskEntity.getAuthor().getUsername());
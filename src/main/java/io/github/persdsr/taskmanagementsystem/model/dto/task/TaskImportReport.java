@@ -0,0 +1,25 @@
+package io.github.persdsr.taskmanagementsystem.model.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TaskImportReport {
+    private long imported;
+    private long failed;
+
+    /** Errors of the first failed lines, {@link #failed} counts all of them */
+    private List<LineError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
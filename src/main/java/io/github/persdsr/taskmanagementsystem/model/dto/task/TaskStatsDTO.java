@@ -0,0 +1,26 @@
+package io.github.persdsr.taskmanagementsystem.model.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TaskStatsDTO {
+    private long total;
+
+    /** Non-zero counts only, ordered by performer, status and priority */
+    private List<Count> counts = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Count {
+        private String performer;
+        private String status;
+        private String priority;
+        private long count;
+    }
+}
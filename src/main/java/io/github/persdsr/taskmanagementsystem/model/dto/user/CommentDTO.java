@@ -1,15 +1,21 @@
 package io.github.persdsr.taskmanagementsystem.model.dto.user;
 
 import io.github.persdsr.taskmanagementsystem.entity.CommentEntity;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class CommentDTO {
+    private Long id;
     private String text;
     private String author;
 
     public static CommentDTO toModel(CommentEntity comment) {
         CommentDTO commentDTO = new CommentDTO();
+        commentDTO.setId(comment.getId());
         commentDTO.setText(comment.getText());
         commentDTO.setAuthor(comment.getAuthor().getUsername());
 
@@ -0,0 +1,18 @@
+package io.github.persdsr.taskmanagementsystem.model.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Comment of an imported task. A missing author means the author of the task.
+ */
+@Data
+public class CommentImportRequest {
+
+    @NotBlank(message = "Text is required")
+    @Size(max = 1000, message = "Text must be less than 1000 characters")
+    private String text;
+
+    private String author;
+}
@@ -0,0 +1,20 @@
+package io.github.persdsr.taskmanagementsystem.model.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class TaskBatchUpdateRequest {
+
+    private List<Integer> ids;
+
+    @Valid
+    private TaskFilterRequest filter;
+
+    @Valid
+    @NotNull(message = "Changes are required")
+    private TaskChangesRequest changes;
+}
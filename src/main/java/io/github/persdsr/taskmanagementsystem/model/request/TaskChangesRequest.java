@@ -0,0 +1,15 @@
+package io.github.persdsr.taskmanagementsystem.model.request;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import lombok.Data;
+
+@Data
+public class TaskChangesRequest {
+
+    private TaskStatus status;
+
+    private TaskPriority priority;
+
+    private String performer;
+}
@@ -0,0 +1,17 @@
+package io.github.persdsr.taskmanagementsystem.model.request;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import lombok.Data;
+
+@Data
+public class TaskFilterRequest {
+
+    private String author;
+
+    private String performer;
+
+    private TaskStatus status;
+
+    private TaskPriority priority;
+}
@@ -0,0 +1,34 @@
+package io.github.persdsr.taskmanagementsystem.model.request;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One line of a task import. Users are given by username, a missing author means the importing user.
+ */
+@Data
+public class TaskImportRequest {
+
+    @NotBlank(message = "Title is required")
+    @Size(max = 100, message = "Title must be less than 100 characters")
+    private String title;
+
+    @Size(max = 500, message = "Description must be less than 500 characters")
+    private String description;
+
+    private TaskStatus status;
+
+    private TaskPriority priority;
+
+    private String author;
+
+    private String performer;
+
+    private List<@Valid CommentImportRequest> comments;
+}
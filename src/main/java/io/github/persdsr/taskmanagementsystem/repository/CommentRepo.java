@@ -1,7 +1,35 @@
 package io.github.persdsr.taskmanagementsystem.repository;
 
 import io.github.persdsr.taskmanagementsystem.entity.CommentEntity;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskCommentDTO;
+import io.github.persdsr.taskmanagementsystem.model.dto.user.CommentDTO;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CommentRepo extends JpaRepository<CommentEntity, Long> {
+
+    @EntityGraph(attributePaths = "author")
+    List<CommentEntity> findAllByTaskIdInOrderByIdAsc(Collection<Integer> taskIds);
+
+    @Query("""
+            select new io.github.persdsr.taskmanagementsystem.model.dto.user.CommentDTO(c.id, c.text, a.username)
+            from comment c left join c.author a
+            where c.task.id = :taskId and c.id > :afterId
+            order by c.id
+            """)
+    List<CommentDTO> findPageByTaskId(@Param("taskId") int taskId, @Param("afterId") long afterId, Limit limit);
+
+    @Query("""
+            select new io.github.persdsr.taskmanagementsystem.model.dto.task.TaskCommentDTO(c.id, t.id, c.text, a.username)
+            from comment c left join c.task t left join c.author a
+            where c.id in :ids
+            order by c.id
+            """)
+    List<TaskCommentDTO> findViewsByIdIn(@Param("ids") Collection<Long> ids);
 }
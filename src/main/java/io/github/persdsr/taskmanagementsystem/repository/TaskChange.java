@@ -0,0 +1,16 @@
+package io.github.persdsr.taskmanagementsystem.repository;
+
+/**
+ * One entry of the change feed: what changed, which row, and its position in the feed.
+ * The kind is {@code TASK}, {@code COMMENT}, {@code TASK_DELETED} or {@code COMMENT_DELETED}.
+ */
+public interface TaskChange {
+
+    String getKind();
+
+    Long getId();
+
+    Long getXid();
+
+    Long getSeq();
+}
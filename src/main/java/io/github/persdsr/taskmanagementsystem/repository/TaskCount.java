@@ -0,0 +1,18 @@
+package io.github.persdsr.taskmanagementsystem.repository;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+
+/**
+ * Number of tasks of one performer with one status and priority, the performer is missing for unassigned tasks.
+ */
+public interface TaskCount {
+
+    String getPerformer();
+
+    TaskStatus getStatus();
+
+    TaskPriority getPriority();
+
+    Long getCount();
+}
@@ -0,0 +1,11 @@
+package io.github.persdsr.taskmanagementsystem.repository;
+
+/**
+ * Ids of the author and the performer of a task, the performer may be missing.
+ */
+public interface TaskParticipants {
+
+    Integer getAuthorId();
+
+    Integer getPerformerId();
+}
@@ -4,12 +4,73 @@ import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface TaskRepo extends JpaRepository<TaskEntity, Integer>, JpaSpecificationExecutor<TaskEntity> {
+public interface TaskRepo extends JpaRepository<TaskEntity, Integer>, JpaSpecificationExecutor<TaskEntity>, TaskRepoCustom {
     Optional<List<TaskEntity>> findAllByAuthorUsername(String username, Pageable pageable);
     Optional<List<TaskEntity>> findAllByPerformerUsername(String username);
     TaskEntity findByAuthorUsername(String username);
+
+    /**
+     * Empty when the task does not exist, otherwise whether the given user is its author.
+     */
+    @Query("""
+            select case when a.username = :username then true else false end
+            from task t join t.author a
+            where t.id = :id
+            """)
+    Optional<Boolean> isAuthoredBy(@Param("id") int id, @Param("username") String username);
+
+    /**
+     * Empty when the task does not exist, otherwise whether the given user is its performer.
+     */
+    @Query("""
+            select case when p.username = :username then true else false end
+            from task t left join t.performer p
+            where t.id = :id
+            """)
+    Optional<Boolean> isPerformedBy(@Param("id") int id, @Param("username") String username);
+
+    @Query("select t.version from task t where t.id = :id")
+    Optional<Long> findVersionById(@Param("id") int id);
+
+    @Query("""
+            select a.id as authorId, p.id as performerId
+            from task t join t.author a left join t.performer p
+            where t.id = :id
+            """)
+    Optional<TaskParticipants> findParticipantsById(@Param("id") int id);
+
+    @Query("""
+            select p.username as performer, t.status as status, t.priority as priority, count(t) as count
+            from task t left join t.performer p
+            group by p.username, t.status, t.priority
+            """)
+    List<TaskCount> countByPerformerStatusAndPriority();
+
+    /**
+     * Tasks and comments written, and tombstones of those deleted, after the given position, in feed order.
+     * Only changes of transactions older than every running one are returned, so that a transaction
+     * committing later can never add a change before a position already handed out. The xid is passed as text,
+     * PostgreSQL has no cast from bigint to xid8.
+     */
+    @Query(nativeQuery = true, value = """
+            select kind, id, cast(cast(change_xid as text) as bigint) as xid, change_seq as seq
+            from (
+                select 'TASK' as kind, cast(id as bigint) as id, change_xid, change_seq from task
+                union all
+                select 'COMMENT', id, change_xid, change_seq from comment
+                union all
+                select entity || '_DELETED', entity_id, change_xid, change_seq from tombstone
+            ) changes
+            where (change_xid, change_seq) > (cast(:xid as xid8), :seq)
+              and change_xid < pg_snapshot_xmin(pg_current_snapshot())
+            order by change_xid, change_seq
+            limit :limit
+            """)
+    List<TaskChange> findChangesAfter(@Param("xid") String xid, @Param("seq") long seq, @Param("limit") int limit);
 }
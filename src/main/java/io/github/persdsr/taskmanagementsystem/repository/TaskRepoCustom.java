@@ -0,0 +1,56 @@
+package io.github.persdsr.taskmanagementsystem.repository;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.exception.response.TooManyTasksException;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface TaskRepoCustom {
+
+    /**
+     * Selects the task id, version and the requested scalar columns straight into {@link TaskDTO}, ordered by id.
+     * Users are joined only when their username is requested, no entity is attached to the
+     * persistence context and comments are not loaded.
+     */
+    List<TaskDTO> findTaskViews(Specification<TaskEntity> specification, Set<TaskField> fields, long offset, int limit);
+
+    /**
+     * Same views as {@link #findTaskViews}, read forward-only with the given JDBC fetch size so that only one
+     * fetch worth of rows is held in memory. Must be consumed and closed inside a transaction: PostgreSQL only
+     * uses a cursor when autocommit is off.
+     */
+    Stream<TaskDTO> streamTaskViews(Specification<TaskEntity> specification, Set<TaskField> fields, int fetchSize);
+
+    /**
+     * Full-text search over title and description combined with the specification. Views are
+     * ordered by rank, best first, then by id and carry their rank. Passing the rank and id of the
+     * last view of a page continues after it.
+     */
+    List<TaskDTO> searchTaskViews(String query, Specification<TaskEntity> specification, Set<TaskField> fields,
+                                  Float afterRank, Integer afterId, int limit);
+
+    /**
+     * Persists new tasks in one transaction, flushing and clearing the persistence context every
+     * {@code slay.app.batch-size} tasks so that each chunk is written as a single JDBC batch.
+     * Returns the generated ids in input order.
+     */
+    List<Integer> saveAllInBatches(List<TaskEntity> tasks);
+
+    /**
+     * Applies the non-null changes to every task matched by the specification, bumping the version, and returns
+     * the state of the updated tasks before the update, ordered by id. The matching tasks are locked, read and
+     * updated with one statement each, so the states are exactly what was replaced. More than
+     * {@code slay.app.update.max-tasks} matching tasks are rejected with a {@link TooManyTasksException} before
+     * anything is written. Managed tasks are flushed before and detached after the update, so later reads see the
+     * new state.
+     */
+    List<TaskState> updateTasks(Specification<TaskEntity> specification, TaskStatus status, TaskPriority priority, UserEntity performer);
+}
@@ -0,0 +1,267 @@
+package io.github.persdsr.taskmanagementsystem.repository;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.exception.response.TooManyTasksException;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class TaskRepoCustomImpl implements TaskRepoCustom {
+
+    private static final String ID = "id";
+    private static final String VERSION = "version";
+    private static final String RANK = "rank";
+    private static final String SEARCH = "search";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${slay.app.batch-size:50}")
+    private int batchSize;
+
+    @Value("${slay.app.update.max-tasks:1000}")
+    private int maxUpdatedTasks;
+
+    @Override
+    @Transactional
+    public List<Integer> saveAllInBatches(List<TaskEntity> tasks) {
+        List<Integer> ids = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskEntity task = tasks.get(i);
+            entityManager.persist(task);
+            ids.add(task.getId());
+
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    @Override
+    @Transactional
+    public List<TaskState> updateTasks(Specification<TaskEntity> specification, TaskStatus status, TaskPriority priority, UserEntity performer) {
+        entityManager.flush();
+        List<Integer> ids = lockIds(specification, maxUpdatedTasks + 1);
+        if (ids.size() > maxUpdatedTasks) {
+            throw TooManyTasksException.builder().build();
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<TaskState> tasks = findStates(ids);
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<TaskEntity> update = criteriaBuilder.createCriteriaUpdate(TaskEntity.class);
+        Root<TaskEntity> root = update.from(TaskEntity.class);
+        if (status != null) {
+            update.set(root.<TaskStatus>get("status"), status);
+        }
+        if (priority != null) {
+            update.set(root.<TaskPriority>get("priority"), priority);
+        }
+        if (performer != null) {
+            update.set(root.<UserEntity>get("performer"), performer);
+        }
+        update.set(root.<Long>get(VERSION), criteriaBuilder.sum(root.<Long>get(VERSION), 1L));
+        // The locked ids rather than the specification, so that tasks matching only since the lock are left alone
+        update.where(root.get(ID).in(ids));
+        entityManager.createQuery(update).executeUpdate();
+
+        entityManager.clear();
+        return tasks;
+    }
+
+    private List<TaskState> findStates(List<Integer> ids) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskState> query = criteriaBuilder.createQuery(TaskState.class);
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+        Join<TaskEntity, UserEntity> author = root.join("author");
+        Join<TaskEntity, UserEntity> performer = root.join("performer", JoinType.LEFT);
+
+        query.select(criteriaBuilder.construct(TaskState.class,
+                        root.get(ID), root.get("title"), root.get("description"), root.get("status"),
+                        root.get("priority"), author.get(ID), author.get("username"), performer.get(ID),
+                        performer.get("username")))
+                .where(root.get(ID).in(ids))
+                .orderBy(criteriaBuilder.asc(root.get(ID)));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Locks at most {@code limit} tasks matched by the specification until the transaction ends and returns their
+     * ids in order, so that nothing changes them between reading their state and updating them.
+     */
+    private List<Integer> lockIds(Specification<TaskEntity> specification, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = criteriaBuilder.createQuery(Integer.class);
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+
+        // Filters may join users, which cannot be locked through an outer join, so they are matched in a subquery
+        Subquery<Integer> matching = query.subquery(Integer.class);
+        Root<TaskEntity> task = matching.from(TaskEntity.class);
+        matching.select(task.get(ID));
+        Predicate predicate = specification.toPredicate(task, criteriaBuilder.createQuery(), criteriaBuilder);
+        if (predicate != null) {
+            matching.where(predicate);
+        }
+        query.select(root.get(ID))
+                .where(root.get(ID).in(matching))
+                .orderBy(criteriaBuilder.asc(root.get(ID)));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(HibernateHints.HINT_FOLLOW_ON_LOCKING, false)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<TaskDTO> findTaskViews(Specification<TaskEntity> specification, Set<TaskField> fields, long offset, int limit) {
+        return entityManager.createQuery(viewQuery(specification, fields))
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> toView(tuple, fields))
+                .toList();
+    }
+
+    @Override
+    public Stream<TaskDTO> streamTaskViews(Specification<TaskEntity> specification, Set<TaskField> fields, int fetchSize) {
+        return entityManager.createQuery(viewQuery(specification, fields))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()
+                .map(tuple -> toView(tuple, fields));
+    }
+
+    private CriteriaQuery<Tuple> viewQuery(Specification<TaskEntity> specification, Set<TaskField> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get(ID).alias(ID));
+        selections.add(root.get(VERSION).alias(VERSION));
+        for (TaskField field : fields) {
+            selections.add(path(root, field).alias(field.getFieldName()));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(criteriaBuilder.asc(root.get(ID)));
+        return query;
+    }
+
+    @Override
+    public List<TaskDTO> searchTaskViews(String search, Specification<TaskEntity> specification, Set<TaskField> fields,
+                                         Float afterRank, Integer afterId, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<TaskEntity> root = query.from(TaskEntity.class);
+
+        ParameterExpression<String> text = criteriaBuilder.parameter(String.class, SEARCH);
+        Expression<Float> rank = criteriaBuilder.function(TaskSearchFunctions.RANK, Float.class, root.get(ID), text);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get(ID).alias(ID));
+        selections.add(root.get(VERSION).alias(VERSION));
+        selections.add(rank.alias(RANK));
+        for (TaskField field : fields) {
+            selections.add(path(root, field).alias(field.getFieldName()));
+        }
+        query.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.isTrue(
+                criteriaBuilder.function(TaskSearchFunctions.MATCH, Boolean.class, root.get(ID), text)));
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (afterRank != null && afterId != null) {
+            predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.lessThan(rank, afterRank),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(rank, afterRank),
+                            criteriaBuilder.greaterThan(root.get(ID), afterId))));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(criteriaBuilder.desc(rank), criteriaBuilder.asc(root.get(ID)));
+
+        return entityManager.createQuery(query)
+                .setParameter(text, search)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> {
+                    TaskDTO view = toView(tuple, fields);
+                    view.setRank(tuple.get(RANK, Float.class));
+                    return view;
+                })
+                .toList();
+    }
+
+    private Path<?> path(Root<TaskEntity> root, TaskField field) {
+        return switch (field) {
+            case TITLE -> root.get("title");
+            case DESCRIPTION -> root.get("description");
+            case STATUS -> root.get("status");
+            case PRIORITY -> root.get("priority");
+            case AUTHOR -> root.join("author").get("username");
+            case PERFORMER -> root.join("performer", JoinType.LEFT).get("username");
+        };
+    }
+
+    private TaskDTO toView(Tuple tuple, Set<TaskField> fields) {
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setId(tuple.get(ID, Integer.class));
+        taskDTO.setVersion(tuple.get(VERSION, Long.class));
+
+        for (TaskField field : fields) {
+            Object value = tuple.get(field.getFieldName());
+            switch (field) {
+                case TITLE -> taskDTO.setTitle((String) value);
+                case DESCRIPTION -> taskDTO.setDescription((String) value);
+                case STATUS -> taskDTO.setStatus(value == null ? null : ((TaskStatus) value).name());
+                case PRIORITY -> taskDTO.setPriority(value == null ? null : ((TaskPriority) value).name());
+                case AUTHOR -> taskDTO.setAuthor((String) value);
+                case PERFORMER -> taskDTO.setPerformer((String) value);
+            }
+        }
+        return taskDTO;
+    }
+}
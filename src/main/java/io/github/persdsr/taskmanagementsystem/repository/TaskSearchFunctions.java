@@ -0,0 +1,90 @@
+package io.github.persdsr.taskmanagementsystem.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionArgumentTypeResolvers;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.List;
+
+/**
+ * PostgreSQL full-text functions used by task search, registered through
+ * {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ * The query is parsed with {@code websearch_to_tsquery}, so clients may use quotes, {@code or} and {@code -}.
+ * <p>
+ * Both take the id of a task and the query. The {@code search_vector} column is not mapped, so that loading a task
+ * never reads it, and is rendered next to the id column of the same table instead.
+ */
+public class TaskSearchFunctions implements FunctionContributor {
+
+    /** Whether the tsvector of the task matches the query */
+    public static final String MATCH = "ts_match";
+
+    /** Relevance of the tsvector of the task for the query */
+    public static final String RANK = "ts_rank_match";
+
+    private static final String SEARCH_VECTOR = "search_vector";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionContributions.getFunctionRegistry().register(MATCH, new SearchVectorFunction(
+                MATCH, "(", " @@ websearch_to_tsquery('simple', ", "))",
+                types.resolve(StandardBasicTypes.BOOLEAN)));
+        functionContributions.getFunctionRegistry().register(RANK, new SearchVectorFunction(
+                RANK, "ts_rank(", ", websearch_to_tsquery('simple', ", "))",
+                types.resolve(StandardBasicTypes.FLOAT)));
+    }
+
+    /**
+     * Renders {@code prefix <search vector> infix <query> suffix}, where the search vector is the column of the table
+     * whose id is the first argument.
+     */
+    private static class SearchVectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+
+        private final String prefix;
+        private final String infix;
+        private final String suffix;
+
+        SearchVectorFunction(String name, String prefix, String infix, String suffix, BasicType<?> type) {
+            super(name,
+                    StandardArgumentsValidators.exactly(2),
+                    StandardFunctionReturnTypeResolvers.invariant(type),
+                    StandardFunctionArgumentTypeResolvers.NULL);
+            this.prefix = prefix;
+            this.infix = infix;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> arguments,
+                           ReturnableType<?> returnType, SqlAstTranslator<?> walker) {
+            ColumnReference id = ((Expression) arguments.get(0)).getColumnReference();
+            if (id == null) {
+                throw new IllegalArgumentException(getName() + " expects the id of a task");
+            }
+
+            sqlAppender.appendSql(prefix);
+            if (id.getQualifier() != null) {
+                sqlAppender.appendSql(id.getQualifier());
+                sqlAppender.appendSql('.');
+            }
+            sqlAppender.appendSql(SEARCH_VECTOR);
+            sqlAppender.appendSql(infix);
+            arguments.get(1).accept(walker);
+            sqlAppender.appendSql(suffix);
+        }
+    }
+}
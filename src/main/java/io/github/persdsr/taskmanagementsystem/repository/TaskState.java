@@ -0,0 +1,11 @@
+package io.github.persdsr.taskmanagementsystem.repository;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+
+/**
+ * Columns of a task as they were before a set-based update, users by id and username. The performer may be missing.
+ */
+public record TaskState(int id, String title, String description, TaskStatus status, TaskPriority priority,
+                        int authorId, String author, Integer performerId, String performer) {
+}
@@ -2,16 +2,29 @@ package io.github.persdsr.taskmanagementsystem.repository;
 
 import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepo extends JpaRepository<UserEntity, Integer> {
     Optional<UserEntity> findByUsername(String username);
 
+    @Query("select u.id from users u where u.username = :username")
+    Optional<Integer> findIdByUsername(@Param("username") String username);
+
     Optional<UserEntity> findByEmail(String username);
 
+    /**
+     * Identity and roles of a user read by a query, so neither the principal cache nor the second-level
+     * cache of users and roles is consulted.
+     */
+    @Query("select u.id as id, u.username as username, r as role from users u left join u.roles r where u.email = :email")
+    List<UserRoleRow> findRolesByEmail(@Param("email") String email);
+
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
@@ -0,0 +1,15 @@
+package io.github.persdsr.taskmanagementsystem.repository;
+
+import io.github.persdsr.taskmanagementsystem.model.Role;
+
+/**
+ * One role of a user with the user's identity, the role is missing for a user without roles.
+ */
+public interface UserRoleRow {
+
+    Integer getId();
+
+    String getUsername();
+
+    Role getRole();
+}
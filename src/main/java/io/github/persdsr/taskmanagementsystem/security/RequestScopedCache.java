@@ -0,0 +1,55 @@
+package io.github.persdsr.taskmanagementsystem.security;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps values for the lifetime of the current HTTP request, so an authorization check evaluated by
+ * {@code @PreAuthorize} can be reused by the service method it guards. Outside a request every call
+ * goes straight to the loader.
+ */
+public class RequestScopedCache {
+
+    private static final String ATTRIBUTE = RequestScopedCache.class.getName();
+
+    public static <T> T computeIfAbsent(String key, Supplier<T> loader) {
+        Map<String, Object> cache = cache();
+        if (cache == null) {
+            return loader.get();
+        }
+
+        @SuppressWarnings("unchecked")
+        T value = (T) cache.get(key);
+        if (value == null) {
+            value = loader.get();
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    public static void put(String key, Object value) {
+        Map<String, Object> cache = cache();
+        if (cache != null) {
+            cache.put(key, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cache() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Map<String, Object> cache = (Map<String, Object>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cache == null) {
+            cache = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, cache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return cache;
+    }
+}
@@ -60,6 +60,7 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/").permitAll()
                         .requestMatchers("/api/task").authenticated()
+                        .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasAuthority("ROLE_ADMIN")
                         .anyRequest().permitAll()
                 );
 
@@ -1,7 +1,12 @@
 package io.github.persdsr.taskmanagementsystem.security.jwt;
 
 
+import io.github.persdsr.taskmanagementsystem.security.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
 import io.github.persdsr.taskmanagementsystem.security.services.UserDetailsServiceImpl;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +14,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -17,6 +25,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 public class AuthTokenFilter extends OncePerRequestFilter {
@@ -26,18 +37,58 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    /**
+     * When positive, claims of a token are compared with the database at most once per interval
+     * and per set of claims; zero trusts the signed claims until the token expires.
+     */
+    @Value("${slay.app.user-recheck-interval:0s}")
+    private Duration userRecheckInterval;
+
+    @Value("${slay.app.token-cache-size:10000}")
+    private int recheckedUsersSize;
+
+    /**
+     * Claims that matched the database within the last interval. Keyed by all of them rather than by user,
+     * so that an outdated token of a user is still rejected after a current one passed.
+     */
+    private Cache<ClaimedUser, Boolean> recheckedUsers;
+
+    private record ClaimedUser(int id, String username, String email, Set<String> authorities) {
+
+        static ClaimedUser of(UserDetailsImpl userDetails) {
+            return new ClaimedUser(userDetails.getId(), userDetails.getUsername(), userDetails.getEmail(),
+                    AuthTokenFilter.authorities(userDetails));
+        }
+    }
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
+    @PostConstruct
+    public void init() {
+        if (isRecheckEnabled()) {
+            recheckedUsers = Caffeine.newBuilder()
+                    .maximumSize(recheckedUsersSize)
+                    .expireAfterWrite(userRecheckInterval)
+                    .build();
+        }
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
+            if (claims != null) {
+                UserDetails userDetails = jwtUtils.getUserDetails(claims);
+
+                if (userDetails == null) {
+                    // Token issued before user claims were embedded
+                    userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+                } else if (isRecheckDue((UserDetailsImpl) userDetails)) {
+                    recheck((UserDetailsImpl) userDetails);
+                }
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -56,6 +107,35 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private boolean isRecheckEnabled() {
+        return !userRecheckInterval.isZero() && !userRecheckInterval.isNegative();
+    }
+
+    private boolean isRecheckDue(UserDetailsImpl claimed) {
+        return recheckedUsers != null && recheckedUsers.getIfPresent(ClaimedUser.of(claimed)) == null;
+    }
+
+    /**
+     * Rejects tokens whose user was removed or whose identity or roles no longer match the database.
+     */
+    private void recheck(UserDetailsImpl claimed) {
+        UserDetailsImpl stored = userDetailsService.loadStoredUser(claimed.getEmail());
+
+        if (stored.getId() != claimed.getId()
+                || !stored.getUsername().equals(claimed.getUsername())
+                || !authorities(stored).equals(authorities(claimed))) {
+            throw new BadCredentialsException("Token claims of " + claimed.getEmail() + " are outdated");
+        }
+
+        recheckedUsers.put(ClaimedUser.of(claimed), Boolean.TRUE);
+    }
+
+    private static Set<String> authorities(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -65,4 +145,4 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
         return null;
     }
-}
\ No newline at end of file
+}
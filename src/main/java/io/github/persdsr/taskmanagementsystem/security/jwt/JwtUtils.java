@@ -1,17 +1,29 @@
 package io.github.persdsr.taskmanagementsystem.security.jwt;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.github.persdsr.taskmanagementsystem.security.services.UserDetailsImpl;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 
@@ -19,47 +31,128 @@ import org.springframework.stereotype.Component;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String USERNAME_CLAIM = "username";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${slay.app.secret}")
     private String jwtSecret;
 
     @Value("${slay.app.lifetime}")
     private int jwtExpirationMs;
 
+    @Value("${slay.app.token-cache-size:10000}")
+    private long tokenCacheSize;
+
+    private Key key;
+
+    private JwtParser parser;
+
+    /**
+     * Claims of recently verified tokens keyed by the SHA-256 digest of the token.
+     * Every entry lives until the expiration of its token.
+     */
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer digest, Claims claims, long currentTime) {
+                        return untilExpiration(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer digest, Claims claims, long currentTime, long currentDuration) {
+                        return untilExpiration(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
         String jwtToken = Jwts.builder()
                 .setSubject((userPrincipal.getEmail()))
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(USERNAME_CLAIM, userPrincipal.getUsername())
+                .claim(ROLES_CLAIM, userPrincipal.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .toList())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
 
         return jwtToken;
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
-    }
+    /**
+     * Verifies the token once and returns its claims, or {@code null} if the token is malformed,
+     * expired or not signed with our key. Repeated calls with the same token are served from memory.
+     */
+    public Claims parseClaims(String token) {
+        ByteBuffer digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims != null) {
+            return claims;
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
-        } catch (MalformedJwtException e) {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Invalid JWT token: {}", e.getMessage());
+            return null;
+        }
 
-        } catch (ExpiredJwtException e) {
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Builds the principal from verified claims without touching the database.
+     * Returns {@code null} for tokens issued before the user claims were added.
+     */
+    public UserDetailsImpl getUserDetails(Claims claims) {
+        Integer id = claims.get(USER_ID_CLAIM, Integer.class);
+        String username = claims.get(USERNAME_CLAIM, String.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (id == null || username == null || roles == null) {
+            return null;
+        }
 
-        } catch (UnsupportedJwtException e) {
+        return new UserDetailsImpl(
+                id,
+                username,
+                claims.getSubject(),
+                null,
+                roles.stream()
+                        .map(role -> new SimpleGrantedAuthority(role.toString()))
+                        .toList());
+    }
 
-        } catch (IllegalArgumentException e) {
+    private static long untilExpiration(Claims claims) {
+        long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
 
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
-
-        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package io.github.persdsr.taskmanagementsystem.security.services;
+
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts the cached principal of every user changed through JPA, whatever the code path: updates of the user row
+ * (for an email change, under the old and the new address), changes of its roles and deletes.
+ * <p>
+ * Eviction happens after the commit, so a principal loaded from the not yet committed state in between is dropped
+ * as well. Bulk JPQL or native updates of users bypass these events and must evict themselves.
+ */
+@Component
+public class UserCacheEvictionListener implements PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionUpdateEventListener, PostCollectionRecreateEventListener, PostCollectionRemoveEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final UserDetailsServiceImpl userDetailsService;
+
+    public UserCacheEvictionListener(EntityManagerFactory entityManagerFactory,
+                                     UserDetailsServiceImpl userDetailsService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof UserEntity user) {
+            if (event.getOldState() != null) {
+                Object oldEmail = event.getOldState()[event.getPersister().getPropertyIndex("email")];
+                if (oldEmail != null && !oldEmail.equals(user.getEmail())) {
+                    evictAfterCommit((String) oldEmail);
+                }
+            }
+            evictAfterCommit(user.getEmail());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof UserEntity user) {
+            evictAfterCommit(user.getEmail());
+        }
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        onCollectionChange(event);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void onCollectionChange(AbstractCollectionEvent event) {
+        if (event.getAffectedOwnerOrNull() instanceof UserEntity user) {
+            evictAfterCommit(user.getEmail());
+        }
+    }
+
+    private void evictAfterCommit(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userDetailsService.evictUser(email);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userDetailsService.evictUser(email);
+            }
+        });
+    }
+}
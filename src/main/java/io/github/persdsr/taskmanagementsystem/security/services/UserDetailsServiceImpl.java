@@ -1,15 +1,24 @@
 package io.github.persdsr.taskmanagementsystem.security.services;
 
+import io.github.persdsr.taskmanagementsystem.config.CacheConfig;
 import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
 import io.github.persdsr.taskmanagementsystem.exception.response.EmailNotFoundException;
 import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import io.github.persdsr.taskmanagementsystem.repository.UserRoleRow;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Objects;
+
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -18,6 +27,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     @Transactional
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#email")
     public UserDetails loadUserByUsername(String email) throws EmailNotFoundException {
         UserEntity user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new EmailNotFoundException("User with email: " + email + " not found"));
@@ -25,5 +35,34 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return UserDetailsImpl.build(user);
     }
 
+    /**
+     * Same principal as {@link #loadUserByUsername}, without the password, always read from the database.
+     * Used to check token claims, which a cached principal could only confirm.
+     */
+    @Transactional(readOnly = true)
+    public UserDetailsImpl loadStoredUser(String email) throws EmailNotFoundException {
+        List<UserRoleRow> rows = userRepository.findRolesByEmail(email);
+        if (rows.isEmpty()) {
+            throw new EmailNotFoundException("User with email: " + email + " not found");
+        }
+
+        List<GrantedAuthority> authorities = rows.stream()
+                .map(UserRoleRow::getRole)
+                .filter(Objects::nonNull)
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.name()))
+                .toList();
+        UserRoleRow user = rows.get(0);
+        return new UserDetailsImpl(user.getId(), user.getUsername(), email, null, authorities);
+    }
+
+    /**
+     * Drops the cached principal of the given email. Changes made through JPA are evicted by
+     * {@link UserCacheEvictionListener}, bulk updates of users must call this themselves
+     * (for an email change, with the old address).
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#email")
+    public void evictUser(String email) {
+    }
+
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor passed to clients as the {@code after} parameter.
+ * The token wraps the sort key of the last returned row; since rows are
+ * ordered by id, the id is both the sort key and the tie-breaker.
+ * Search results are ordered by rank instead and use the id only as the tie-breaker.
+ * Change feeds are ordered by writing transaction and change sequence, their cursor also
+ * remembers when the client was last up to date.
+ */
+public class PageCursor {
+
+    private static final String PREFIX = "id:";
+
+    private static final String RANKED_PREFIX = "rank:";
+
+    private static final String CHANGE_PREFIX = "change:";
+
+    public record RankedKey(float rank, long id) {
+    }
+
+    public record ChangeKey(long xid, long seq, long syncedAt) {
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(float rank, long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((RANKED_PREFIX + rank + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(ChangeKey key) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((CHANGE_PREFIX + key.xid() + ":" + key.seq() + ":" + key.syncedAt())
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeKey decodeChange(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = value.split(":");
+            if (!value.startsWith(CHANGE_PREFIX) || parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new ChangeKey(Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public static RankedKey decodeRanked(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(':');
+            if (!value.startsWith(RANKED_PREFIX) || separator < RANKED_PREFIX.length()) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new RankedKey(
+                    Float.parseFloat(value.substring(RANKED_PREFIX.length(), separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public static long decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -15,7 +15,7 @@ public class PermissionEvaluator {
     }
 
     public boolean isPerformerOrAdmin(int taskId) {
-        return isTaskPerformer(taskId) || isAdmin();
+        return isAdmin() || isTaskPerformer(taskId);
     }
 
     public boolean isTaskAuthor(int taskId) {
@@ -0,0 +1,154 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.model.ExportFormat;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Writes every task matching the filters as NDJSON or CSV.
+ * <p>
+ * Rows are read as projections through a forward-only cursor, so nothing is attached to the persistence
+ * context and the heap only holds one fetch of rows and the write buffer, whatever the number of tasks.
+ */
+@Service
+public class TaskExportService {
+
+    private static final String CSV_LINE_END = "\r\n";
+
+    private final TaskRepo taskRepo;
+
+    private final ObjectWriter taskWriter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int fetchSize;
+
+    public TaskExportService(TaskRepo taskRepo,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${slay.app.export.fetch-size:1000}") int fetchSize) {
+        this.taskRepo = taskRepo;
+        this.taskWriter = objectMapper.writerFor(TaskDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Checks access and builds the filter right away. The returned body runs later on the thread that
+     * writes the response, reading the tasks in its own read-only transaction.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public StreamingResponseBody exportTasks(
+            String author,
+            String performer,
+            TaskStatus status,
+            TaskPriority priority,
+            Set<TaskField> fields,
+            ExportFormat format) {
+
+        Specification<TaskEntity> specification = TaskSpecifications.byFilters(author, performer, status, priority);
+
+        return outputStream -> transactionTemplate.executeWithoutResult(transaction -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try (Stream<TaskDTO> tasks = taskRepo.streamTaskViews(specification, fields, fetchSize)) {
+                switch (format) {
+                    case NDJSON -> writeNdjson(tasks.iterator(), writer);
+                    case CSV -> writeCsv(tasks.iterator(), fields, writer);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(Iterator<TaskDTO> tasks, Writer writer) throws IOException {
+        JsonGenerator generator = taskWriter.createGenerator(writer);
+        generator.setRootValueSeparator(null);
+        boolean first = true;
+        while (tasks.hasNext()) {
+            taskWriter.writeValue(generator, tasks.next());
+            generator.writeRaw('\n');
+            if (first) {
+                // Send the first line at once instead of waiting for the buffers to fill
+                generator.flush();
+                first = false;
+            }
+        }
+        generator.flush();
+    }
+
+    private static void writeCsv(Iterator<TaskDTO> tasks, Set<TaskField> fields, Writer writer) throws IOException {
+        writer.write("id");
+        for (TaskField field : fields) {
+            writer.write(',');
+            writer.write(field.getFieldName());
+        }
+        writer.write(CSV_LINE_END);
+        writer.flush();
+
+        while (tasks.hasNext()) {
+            TaskDTO task = tasks.next();
+            writer.write(String.valueOf(task.getId()));
+            for (TaskField field : fields) {
+                writer.write(',');
+                writeCsvValue(writer, csvValue(task, field));
+            }
+            writer.write(CSV_LINE_END);
+        }
+    }
+
+    private static String csvValue(TaskDTO task, TaskField field) {
+        return switch (field) {
+            case TITLE -> task.getTitle();
+            case DESCRIPTION -> task.getDescription();
+            case AUTHOR -> task.getAuthor();
+            case PERFORMER -> task.getPerformer();
+            case STATUS -> task.getStatus();
+            case PRIORITY -> task.getPriority();
+        };
+    }
+
+    /**
+     * Quotes values containing separators, quotes or line breaks as RFC 4180 requires, a missing value stays empty.
+     */
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
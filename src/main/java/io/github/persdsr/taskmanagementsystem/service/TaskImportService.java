@@ -0,0 +1,300 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.persdsr.taskmanagementsystem.entity.CommentEntity;
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskImportReport;
+import io.github.persdsr.taskmanagementsystem.model.request.CommentImportRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskImportRequest;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskCommentedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskSnapshot;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports tasks with their comments from NDJSON, one task per line.
+ * <p>
+ * The body is read line by line and every line is parsed on its own, so a malformed line is reported
+ * and skipped without losing the position in the stream. A line longer than {@code slay.app.import.max-line-length}
+ * characters is skipped unread and reported as well. Valid lines are written in chunks of
+ * {@code slay.app.import.chunk-size}, each chunk in its own transaction; a chunk the database rejects is
+ * reported for all of its lines and the import goes on. Memory use is bounded by one line, one chunk, the
+ * username cache and the first {@code slay.app.import.max-errors} errors, whatever the size of the body.
+ */
+@Service
+public class TaskImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskImportService.class);
+
+    private final TaskRepo taskRepo;
+
+    private final UserRepo userRepo;
+
+    private final ObjectReader lineReader;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final int userCacheSize;
+
+    private final int maxErrors;
+
+    private final int maxLineLength;
+
+    /**
+     * Valid line with its users resolved to ids, turned into entities inside the chunk transaction.
+     */
+    private record ImportLine(long number, TaskImportRequest task, String author, int authorId, Integer performerId,
+                              List<String> commentAuthors, List<Integer> commentAuthorIds) {
+    }
+
+    public TaskImportService(TaskRepo taskRepo,
+                             UserRepo userRepo,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${slay.app.import.chunk-size:500}") int chunkSize,
+                             @Value("${slay.app.import.user-cache-size:10000}") int userCacheSize,
+                             @Value("${slay.app.import.max-errors:1000}") int maxErrors,
+                             @Value("${slay.app.import.max-line-length:1048576}") int maxLineLength) {
+        this.taskRepo = taskRepo;
+        this.userRepo = userRepo;
+        this.lineReader = objectMapper.readerFor(TaskImportRequest.class);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.userCacheSize = userCacheSize;
+        this.maxErrors = maxErrors;
+        this.maxLineLength = maxLineLength;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public TaskImportReport importTasks(InputStream input) throws IOException {
+        // Bounded per import, so that users created meanwhile are seen by the next import
+        Cache<String, Optional<Integer>> userIds = Caffeine.newBuilder()
+                .maximumSize(userCacheSize)
+                .build();
+        String importer = SecurityContextHolder.getContext().getAuthentication().getName();
+        int importerId = requireUserId(userIds, importer);
+
+        TaskImportReport report = new TaskImportReport();
+        List<ImportLine> chunk = new ArrayList<>(chunkSize);
+
+        LineReader reader = new LineReader(new InputStreamReader(input, StandardCharsets.UTF_8), maxLineLength);
+        long number = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (reader.isTooLong()) {
+                fail(report, number, "Line longer than " + maxLineLength + " characters");
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                chunk.add(resolve(number, lineReader.readValue(line), importer, importerId, userIds));
+            } catch (JsonProcessingException e) {
+                fail(report, number, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                fail(report, number, e.getMessage());
+            }
+
+            if (chunk.size() == chunkSize) {
+                write(chunk, report);
+                chunk.clear();
+            }
+        }
+        write(chunk, report);
+
+        logger.info("Import finished after {} lines: {} tasks imported, {} lines failed",
+                number, report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private ImportLine resolve(long number, TaskImportRequest task, String importer, int importerId,
+                               Cache<String, Optional<Integer>> userIds) {
+        Set<ConstraintViolation<TaskImportRequest>> violations = validator.validate(task);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        int authorId = task.getAuthor() == null ? importerId : requireUserId(userIds, task.getAuthor());
+        Integer performerId = task.getPerformer() == null ? null : requireUserId(userIds, task.getPerformer());
+        List<Integer> commentAuthorIds = task.getComments() == null ? List.of() : task.getComments().stream()
+                .map(comment -> comment.getAuthor() == null ? authorId : requireUserId(userIds, comment.getAuthor()))
+                .toList();
+
+        String author = task.getAuthor() == null ? importer : task.getAuthor();
+        List<String> commentAuthors = task.getComments() == null ? List.of() : task.getComments().stream()
+                .map(comment -> comment.getAuthor() == null ? author : comment.getAuthor())
+                .toList();
+        return new ImportLine(number, task, author, authorId, performerId, commentAuthors, commentAuthorIds);
+    }
+
+    private int requireUserId(Cache<String, Optional<Integer>> userIds, String username) {
+        return findUserId(userIds, username)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown user: " + username));
+    }
+
+    private Optional<Integer> findUserId(Cache<String, Optional<Integer>> userIds, String username) {
+        return userIds.get(username, userRepo::findIdByUsername);
+    }
+
+    private void write(List<ImportLine> chunk, TaskImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                List<TaskEntity> tasks = chunk.stream().map(this::toEntity).toList();
+                taskRepo.saveAllInBatches(tasks);
+                // Snapshots take usernames from the lines, the users themselves are only referenced
+                for (int i = 0; i < tasks.size(); i++) {
+                    ImportLine line = chunk.get(i);
+                    TaskEntity task = tasks.get(i);
+                    eventPublisher.publishEvent(TaskChangedEvent.created(task.getId(), new TaskSnapshot(
+                            task.getTitle(), task.getDescription(), task.getStatus(), task.getPriority(),
+                            line.authorId(), line.author(), line.performerId(), line.task().getPerformer())));
+                    List<CommentEntity> comments = task.getComments();
+                    for (int j = 0; j < comments.size(); j++) {
+                        eventPublisher.publishEvent(new TaskCommentedEvent(task.getId(), comments.get(j).getId(),
+                                line.commentAuthors().get(j)));
+                    }
+                }
+            });
+            report.setImported(report.getImported() + chunk.size());
+        } catch (RuntimeException e) {
+            String message = "Chunk rejected: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            chunk.forEach(line -> fail(report, line.number(), message));
+        }
+
+        logger.info("Import progress: {} tasks imported, {} lines failed", report.getImported(), report.getFailed());
+    }
+
+    private TaskEntity toEntity(ImportLine line) {
+        TaskImportRequest request = line.task();
+        TaskEntity task = TaskEntity.builder()
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .status(request.getStatus() == null ? TaskStatus.PENDING : request.getStatus())
+                .priority(request.getPriority() == null ? TaskPriority.LOW : request.getPriority())
+                .author(userRepo.getReferenceById(line.authorId()))
+                .performer(line.performerId() == null ? null : userRepo.getReferenceById(line.performerId()))
+                .comments(new ArrayList<>())
+                .build();
+
+        List<CommentImportRequest> comments = request.getComments() == null ? List.of() : request.getComments();
+        for (int i = 0; i < comments.size(); i++) {
+            task.getComments().add(CommentEntity.builder()
+                    .text(comments.get(i).getText())
+                    .author(userRepo.getReferenceById(line.commentAuthorIds().get(i)))
+                    .task(task)
+                    .build());
+        }
+        return task;
+    }
+
+    private void fail(TaskImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new TaskImportReport.LineError(line, message));
+        }
+    }
+
+    /**
+     * Splits the body into lines like {@link BufferedReader#readLine()}, but drops the rest of a line
+     * once it is longer than the limit instead of buffering it.
+     */
+    private static final class LineReader {
+
+        private final Reader reader;
+
+        private final int maxLength;
+
+        private final StringBuilder line = new StringBuilder();
+
+        private boolean tooLong;
+
+        LineReader(Reader reader, int maxLength) {
+            this.reader = new BufferedReader(reader);
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * @return the next line without its terminator, {@code null} at the end of the body; the text of a
+         * line that was too long is incomplete
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1 && c != '\n') {
+                if (line.length() < maxLength + 1) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+                c = reader.read();
+            }
+            if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            tooLong |= line.length() > maxLength;
+            return line.toString();
+        }
+
+        /**
+         * @return whether the line last read was longer than the limit
+         */
+        boolean isTooLong() {
+            return tooLong;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.exception.response.UserNotFoundException;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies PATCH bodies to tasks through a setter table built once at startup. Only the fields
+ * listed here can be changed, values are converted before the task is loaded and no reflection
+ * is involved.
+ */
+@Component
+public class TaskPatcher {
+
+    private final Map<String, FieldSetter<?>> setters;
+
+    public TaskPatcher(UserRepo userRepo) {
+        Function<Object, UserEntity> user = value -> userRepo.findByUsername(text(value))
+                .orElseThrow(() -> UserNotFoundException.builder().build());
+
+        this.setters = Map.of(
+                "title", new FieldSetter<>(required(TaskPatcher::text), TaskEntity::setTitle),
+                "description", new FieldSetter<>(nullable(TaskPatcher::text), TaskEntity::setDescription),
+                "status", new FieldSetter<>(required(constants(TaskStatus.class)), TaskEntity::setStatus),
+                "priority", new FieldSetter<>(required(constants(TaskPriority.class)), TaskEntity::setPriority),
+                "author", new FieldSetter<>(required(user), TaskEntity::setAuthor),
+                "performer", new FieldSetter<>(nullable(user), TaskEntity::setPerformer));
+    }
+
+    /**
+     * Validates and converts every change up front and returns the action that applies them.
+     *
+     * @throws IllegalArgumentException if a key is not patchable or a value has the wrong type
+     */
+    public Consumer<TaskEntity> compile(Map<String, Object> changes) {
+        List<Consumer<TaskEntity>> actions = new ArrayList<>(changes.size());
+        changes.forEach((key, value) -> {
+            FieldSetter<?> setter = setters.get(key);
+            if (setter == null) {
+                throw new IllegalArgumentException("Field " + key + " cannot be updated");
+            }
+            actions.add(setter.prepare(value));
+        });
+
+        return task -> actions.forEach(action -> action.accept(task));
+    }
+
+    private record FieldSetter<T>(Function<Object, T> converter, BiConsumer<TaskEntity, T> setter) {
+
+        Consumer<TaskEntity> prepare(Object value) {
+            T converted = converter.apply(value);
+            return task -> setter.accept(task, converted);
+        }
+    }
+
+    private static <T> Function<Object, T> required(Function<Object, T> converter) {
+        return value -> {
+            if (value == null) {
+                throw new IllegalArgumentException("Value must not be null");
+            }
+            return converter.apply(value);
+        };
+    }
+
+    private static <T> Function<Object, T> nullable(Function<Object, T> converter) {
+        return value -> value == null ? null : converter.apply(value);
+    }
+
+    private static String text(Object value) {
+        if (value instanceof String text) {
+            return text;
+        }
+        throw new IllegalArgumentException("Value must be a string");
+    }
+
+    private static <E extends Enum<E>> Function<Object, E> constants(Class<E> type) {
+        Map<String, E> byName = Arrays.stream(type.getEnumConstants())
+                .collect(Collectors.toUnmodifiableMap(Enum::name, Function.identity()));
+
+        return value -> {
+            E constant = byName.get(text(value));
+            if (constant == null) {
+                throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + value);
+            }
+            return constant;
+        };
+    }
+}
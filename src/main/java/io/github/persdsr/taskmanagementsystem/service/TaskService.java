@@ -4,18 +4,33 @@ import io.github.persdsr.taskmanagementsystem.entity.CommentEntity;
 import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
 import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
 import io.github.persdsr.taskmanagementsystem.exception.response.AuthorNotFoundException;
+import io.github.persdsr.taskmanagementsystem.exception.response.PreconditionFailedException;
 import io.github.persdsr.taskmanagementsystem.exception.response.TaskNotFoundException;
 import io.github.persdsr.taskmanagementsystem.exception.response.UserNotFoundException;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
 import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
 import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.CursorPage;
 import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
 import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskRequestDTO;
 import io.github.persdsr.taskmanagementsystem.model.dto.user.CommentDTO;
 import io.github.persdsr.taskmanagementsystem.model.request.CommentRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskBatchUpdateRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskChangesRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskFilterRequest;
+import io.github.persdsr.taskmanagementsystem.repository.CommentRepo;
 import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.repository.TaskState;
 import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import io.github.persdsr.taskmanagementsystem.security.RequestScopedCache;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskCommentedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskSnapshot;
+import io.github.persdsr.taskmanagementsystem.service.search.TaskSearchIndex;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -23,12 +38,15 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.util.ReflectionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -36,13 +54,17 @@ public class TaskService {
 
     private final TaskRepo taskRepo;
     private final UserRepo userRepo;
+    private final CommentRepo commentRepo;
+    private final TaskPatcher taskPatcher;
+    private final TaskSearchIndex taskSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     @PreAuthorize("hasRole('ADMIN')")
-    public TaskDTO getTaskById(int id) {
-        Optional<TaskEntity> task = taskRepo.findById(id);
-        if (task.isPresent()) {
-            return TaskDTO.toModel(task.get());
+    public TaskDTO getTaskById(int id, Set<TaskField> fields, boolean includeComments) {
+        List<TaskDTO> task = taskRepo.findTaskViews(TaskSpecifications.hasId(id), fields, 0, 1);
+        if (!task.isEmpty()) {
+            return includeComments ? withComments(task).get(0) : task.get(0);
         } else {
             throw TaskNotFoundException.builder().build();
         }
@@ -55,35 +77,147 @@ public class TaskService {
             TaskStatus status,
             TaskPriority priority,
             int pageNumber,
-            int pageSize) {
+            int pageSize,
+            Set<TaskField> fields,
+            boolean includeComments) {
 
-        Specification<TaskEntity> specification = Specification.where(null);
+        Specification<TaskEntity> specification = TaskSpecifications.byFilters(author, performer, status, priority);
+        Pageable page = PageRequest.of(pageNumber, pageSize);
 
-        if (author != null) {
-            specification = specification.and(TaskSpecifications.hasAuthor(author));
+        List<TaskDTO> tasks = taskRepo.findTaskViews(specification, fields, page.getOffset(), page.getPageSize());
+
+        return includeComments ? withComments(tasks) : tasks;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public CursorPage<TaskDTO> getTasksAfter(
+            String author,
+            String performer,
+            TaskStatus status,
+            TaskPriority priority,
+            String after,
+            int pageSize,
+            Set<TaskField> fields,
+            boolean includeComments) {
+
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+
+        Specification<TaskEntity> specification = TaskSpecifications.byFilters(author, performer, status, priority);
+
+        if (StringUtils.hasText(after)) {
+            specification = specification.and(TaskSpecifications.idGreaterThan(toTaskId(PageCursor.decode(after))));
         }
 
-        if (performer != null) {
-            specification = specification.and(TaskSpecifications.hasPerformer(performer));
+        // One extra row tells whether there is a next page without running a count query
+        List<TaskDTO> tasks = taskRepo.findTaskViews(specification, fields, 0, pageSize + 1);
+
+        String nextCursor = null;
+        if (tasks.size() > pageSize) {
+            tasks = tasks.subList(0, pageSize);
+            nextCursor = PageCursor.encode(tasks.get(pageSize - 1).getId());
+        }
+
+        return new CursorPage<>(includeComments ? withComments(tasks) : tasks, nextCursor);
+    }
+
+    @PreAuthorize("@permissionEvaluator.isPerformerOrAdmin(#id)")
+    public CursorPage<CommentDTO> getComments(int id, String after, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
         }
 
-        if (status != null) {
-            specification = specification.and(TaskSpecifications.hasStatus(status));
+        long afterId = StringUtils.hasText(after) ? PageCursor.decode(after) : 0;
+
+        List<CommentDTO> comments = commentRepo.findPageByTaskId(id, afterId, Limit.of(pageSize + 1));
+
+        if (comments.isEmpty() && !taskRepo.existsById(id)) {
+            throw TaskNotFoundException.builder().build();
         }
 
-        if (priority != null) {
-            specification = specification.and(TaskSpecifications.hasPriority(priority));
+        String nextCursor = null;
+        if (comments.size() > pageSize) {
+            comments = comments.subList(0, pageSize);
+            nextCursor = PageCursor.encode(comments.get(pageSize - 1).getId());
         }
 
-        Page<TaskEntity> tasks = taskRepo.findAll(specification, PageRequest.of(pageNumber, pageSize));
+        return new CursorPage<>(comments, nextCursor);
+    }
 
-        return tasks.stream()
-                .map(TaskDTO::toModel)
-                .toList();
+    /**
+     * Embeds comments into already projected tasks with a single query for the whole page.
+     */
+    private List<TaskDTO> withComments(List<TaskDTO> tasks) {
+        if (tasks.isEmpty()) {
+            return tasks;
+        }
+
+        Map<Integer, List<CommentDTO>> comments = commentRepo.findAllByTaskIdInOrderByIdAsc(tasks.stream()
+                        .map(TaskDTO::getId)
+                        .toList())
+                .stream()
+                .collect(Collectors.groupingBy(comment -> comment.getTask().getId(),
+                        Collectors.mapping(CommentDTO::toModel, Collectors.toList())));
+
+        tasks.forEach(task -> task.setComments(comments.getOrDefault(task.getId(), List.of())));
+        return tasks;
+    }
+
+    /**
+     * Rejects the change unless the task is at one of the versions the client named in If-Match,
+     * {@code null} accepts any version.
+     */
+    private static void checkVersion(TaskEntity task, Set<Long> expectedVersions) {
+        // A concurrent change after this check is caught by @Version when the transaction flushes
+        if (expectedVersions != null && !expectedVersions.contains(task.getVersion())) {
+            throw PreconditionFailedException.builder().build();
+        }
     }
 
 
     @PreAuthorize("hasRole('ADMIN')")
+    public CursorPage<TaskDTO> searchTasks(
+            String search,
+            String author,
+            String performer,
+            TaskStatus status,
+            TaskPriority priority,
+            String after,
+            int pageSize,
+            Set<TaskField> fields) {
+
+        if (!StringUtils.hasText(search)) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+
+        Specification<TaskEntity> specification = TaskSpecifications.byFilters(author, performer, status, priority);
+
+        Float afterRank = null;
+        Integer afterId = null;
+        if (StringUtils.hasText(after)) {
+            PageCursor.RankedKey key = PageCursor.decodeRanked(after);
+            afterRank = key.rank();
+            afterId = toTaskId(key.id());
+        }
+
+        List<TaskDTO> tasks = taskSearchIndex.search(search, specification, fields, afterRank, afterId, pageSize + 1);
+
+        String nextCursor = null;
+        if (tasks.size() > pageSize) {
+            tasks = tasks.subList(0, pageSize);
+            TaskDTO last = tasks.get(pageSize - 1);
+            nextCursor = PageCursor.encode(last.getRank(), last.getId());
+        }
+
+        return new CursorPage<>(tasks, nextCursor);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public void addTask(TaskRequestDTO taskDTO) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         Optional<UserEntity> author = userRepo.findByUsername(authentication.getName());
@@ -95,89 +229,178 @@ public class TaskService {
                 .description(taskDTO.getDescription()).build();
 
         taskRepo.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.created(task));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
-    public void updateTask(Map<String, Object> task, int id) {
-        TaskEntity taskEntity = taskRepo.findById(id).orElse(null);
+    @Transactional
+    public List<Integer> addTasks(List<TaskRequestDTO> taskDTOs) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserEntity author = userRepo.findByUsername(authentication.getName()).get();
+
+        List<TaskEntity> tasks = taskDTOs.stream()
+                .map(taskDTO -> TaskEntity.builder()
+                        .author(author)
+                        .title(taskDTO.getTitle())
+                        .status(TaskStatus.PENDING)
+                        .priority(taskDTO.getPriority())
+                        .description(taskDTO.getDescription()).build())
+                .toList();
 
-        if (taskEntity == null) {
-            throw TaskNotFoundException.builder().build();
+        List<Integer> ids = taskRepo.saveAllInBatches(tasks);
+        tasks.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.created(task)));
+        return ids;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
+    public int updateTasks(TaskBatchUpdateRequest request) {
+        if ((request.getIds() == null) == (request.getFilter() == null)) {
+            throw new IllegalArgumentException("Exactly one of ids and filter must be given");
         }
 
-        task.forEach((key, value) -> {
-            Field field = ReflectionUtils.findField(TaskEntity.class, key);
-            field.setAccessible(true);
+        TaskChangesRequest changes = request.getChanges();
+        if (changes.getStatus() == null && changes.getPriority() == null && changes.getPerformer() == null) {
+            throw new IllegalArgumentException("At least one change must be given");
+        }
 
-            if (field.getType().isEnum()) {
-                value = Enum.valueOf((Class<Enum>) field.getType(), value.toString());
+        Specification<TaskEntity> specification;
+        if (request.getIds() != null) {
+            if (request.getIds().isEmpty()) {
+                return 0;
             }
+            specification = TaskSpecifications.hasIdIn(request.getIds());
+        } else {
+            TaskFilterRequest filter = request.getFilter();
+            specification = TaskSpecifications.byFilters(
+                    filter.getAuthor(), filter.getPerformer(), filter.getStatus(), filter.getPriority());
+        }
 
-            ReflectionUtils.setField(field, taskEntity, value);
-        });
-        taskRepo.save(taskEntity);
+        UserEntity performer = null;
+        if (changes.getPerformer() != null) {
+            performer = userRepo.findByUsername(changes.getPerformer())
+                    .orElseThrow(() -> UserNotFoundException.builder().build());
+        }
+
+        List<TaskState> updated = taskRepo.updateTasks(specification, changes.getStatus(), changes.getPriority(), performer);
+        // One event per task, so that the outbox and the consumers see which tasks changed and how
+        for (TaskState task : updated) {
+            TaskSnapshot before = TaskSnapshot.of(task);
+            TaskSnapshot after = before.withChanges(changes.getStatus(), changes.getPriority(), performer);
+            eventPublisher.publishEvent(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, task.id(), before, after));
+        }
+        return updated.size();
+    }
+
+    /**
+     * Current version of the task without loading it, used to answer conditional reads.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public long getTaskVersion(int id) {
+        return taskRepo.findVersionById(id)
+                .orElseThrow(() -> TaskNotFoundException.builder().build());
     }
 
+    /**
+     * @param expectedVersions versions from If-Match, the task must have one of them; {@code null} skips the check
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional
+    public void updateTask(Map<String, Object> task, int id, Set<Long> expectedVersions) {
+        Consumer<TaskEntity> changes = taskPatcher.compile(task);
+
+        TaskEntity taskEntity = taskRepo.findById(id).orElse(null);
+
+        if (taskEntity == null) {
+            throw TaskNotFoundException.builder().build();
+        }
+        checkVersion(taskEntity, expectedVersions);
 
+        TaskSnapshot before = TaskSnapshot.of(taskEntity);
+        // Dirty checking flushes only the changed columns, see @DynamicUpdate on TaskEntity
+        changes.accept(taskEntity);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, taskEntity));
+    }
 
+    /**
+     * @param expectedVersions versions from If-Match, the task must have one of them; {@code null} skips the check
+     */
     @PreAuthorize("hasRole('ADMIN')")
-    public void deleteTask(int id) {
+    @Transactional
+    public void deleteTask(int id, Set<Long> expectedVersions) {
         TaskEntity task = taskRepo.findById(id).orElse(null);
 
         if (task == null) {
             throw TaskNotFoundException.builder().build();
         }
+        checkVersion(task, expectedVersions);
 
         taskRepo.delete(task);
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(task));
     }
 
     @PreAuthorize("@permissionEvaluator.isPerformerOrAdmin(#id)")
+    @Transactional
     public void addCommentToTask(int id, CommentRequest comment) {
-        TaskEntity task = taskRepo.findById(id).orElse(null);
-
-        if (task == null) {
+        if (!taskExists(id)) {
             throw TaskNotFoundException.builder().build();
         }
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
+        // The task is only referenced by its id, so neither the task nor its comments are loaded
         CommentEntity commentEntity = CommentEntity.builder()
-                .task(task)
+                .task(taskRepo.getReferenceById(id))
                 .text(comment.getText())
                 .author(userRepo.findByUsername(authentication.getName()).get())
                 .build();
 
-
-        task.getComments().add(commentEntity);
-
-        taskRepo.save(task);
+        try {
+            commentRepo.saveAndFlush(commentEntity);
+        } catch (DataIntegrityViolationException e) {
+            // The task was deleted after the check above, its foreign key rejects the comment
+            throw TaskNotFoundException.builder().build();
+        }
+        eventPublisher.publishEvent(new TaskCommentedEvent(id, commentEntity.getId(), authentication.getName()));
     }
 
     public boolean isTaskAuthor(int id, String author) {
-        Optional<TaskEntity> task = taskRepo.findById(id);
-
-        if (task.isPresent()) {
-            if (task.get().getAuthor().getUsername().equals(author)) {
-                return true;
-            } else {
-                return false;
-            }
-        } else {
-            throw TaskNotFoundException.builder().build();
-        }
+        return RequestScopedCache.computeIfAbsent("task-author:" + id + ":" + author, () -> {
+            boolean isAuthor = taskRepo.isAuthoredBy(id, author)
+                    .orElseThrow(() -> TaskNotFoundException.builder().build());
+            RequestScopedCache.put(taskExistsKey(id), true);
+            return isAuthor;
+        });
     }
 
     public boolean isTaskPerformer(int id, String performer) {
-        Optional<TaskEntity> task = taskRepo.findById(id);
+        return RequestScopedCache.computeIfAbsent("task-performer:" + id + ":" + performer, () -> {
+            boolean isPerformer = taskRepo.isPerformedBy(id, performer)
+                    .orElseThrow(() -> TaskNotFoundException.builder().build());
+            RequestScopedCache.put(taskExistsKey(id), true);
+            return isPerformer;
+        });
+    }
 
-        if (task.isPresent()) {
-            if (task.get().getPerformer() != null && task.get().getPerformer().getUsername().equals(performer)) {
-                return true;
-            } else {
-                return false;
-            }
-        } else {
-            throw TaskNotFoundException.builder().build();
+    /**
+     * Reuses the outcome of a permission check made earlier in the same request.
+     */
+    private boolean taskExists(int id) {
+        return RequestScopedCache.computeIfAbsent(taskExistsKey(id), () -> taskRepo.existsById(id));
+    }
+
+    private static String taskExistsKey(int id) {
+        return "task-exists:" + id;
+    }
+
+    /**
+     * Task ids are ints, a cursor holding a larger id was not issued by us.
+     */
+    private static int toTaskId(long cursorId) {
+        try {
+            return Math.toIntExact(cursorId);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid cursor id: " + cursorId, e);
         }
     }
 }
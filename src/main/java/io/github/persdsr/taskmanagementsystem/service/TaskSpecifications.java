@@ -5,9 +5,36 @@ import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
 import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
 
 public class TaskSpecifications {
 
+    public static Specification<TaskEntity> byFilters(String author,
+                                                      String performer,
+                                                      TaskStatus status,
+                                                      TaskPriority priority) {
+        Specification<TaskEntity> specification = Specification.where(null);
+
+        if (author != null) {
+            specification = specification.and(hasAuthor(author));
+        }
+
+        if (performer != null) {
+            specification = specification.and(hasPerformer(performer));
+        }
+
+        if (status != null) {
+            specification = specification.and(hasStatus(status));
+        }
+
+        if (priority != null) {
+            specification = specification.and(hasPriority(priority));
+        }
+
+        return specification;
+    }
+
     public static Specification<TaskEntity> hasAuthor(String author) {
         return (root, query, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("author").get("username"), author);
@@ -27,4 +54,19 @@ public class TaskSpecifications {
         return (root, query, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("priority"), priority);
     }
-}
\ No newline at end of file
+
+    public static Specification<TaskEntity> hasId(int id) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("id"), id);
+    }
+
+    public static Specification<TaskEntity> hasIdIn(Collection<Integer> ids) {
+        return (root, query, criteriaBuilder) ->
+                root.get("id").in(ids);
+    }
+
+    public static Specification<TaskEntity> idGreaterThan(int id) {
+        return (root, query, criteriaBuilder) ->
+                criteriaBuilder.greaterThan(root.get("id"), id);
+    }
+}
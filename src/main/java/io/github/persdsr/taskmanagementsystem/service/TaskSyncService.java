@@ -0,0 +1,153 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import io.github.persdsr.taskmanagementsystem.exception.response.SyncCursorExpiredException;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskChangesDTO;
+import io.github.persdsr.taskmanagementsystem.repository.CommentRepo;
+import io.github.persdsr.taskmanagementsystem.repository.TaskChange;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tells clients what changed since their last sync, so that they keep a local copy of the tasks without
+ * reloading everything.
+ * <p>
+ * Database triggers stamp every written task and comment with the next value of a sequence and the id of the
+ * writing transaction, and leave a tombstone for every deleted one (see {@code V6__change_tracking.sql}). Sequence
+ * values are taken in write order, not in commit order, so the feed is ordered by transaction first and only
+ * returns transactions older than every running one: nothing can commit behind a cursor once it is handed out.
+ * A long transaction delays the changes committed after it started, but none are lost.
+ * <p>
+ * Tombstones are purged after {@code slay.app.sync.tombstone-retention}. A client that was last up to date
+ * before that may have missed deletes and gets 410 Gone instead, it has to reload everything.
+ */
+@Service
+public class TaskSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSyncService.class);
+
+    private static final Set<TaskField> ALL_FIELDS = EnumSet.allOf(TaskField.class);
+
+    /** Transactions running longer than this may have tombstones purged before they are read */
+    private static final Duration PURGE_MARGIN = Duration.ofDays(1);
+
+    private static final String PURGE_TOMBSTONES = "delete from tombstone where deleted_at < ?";
+
+    private final TaskRepo taskRepo;
+
+    private final CommentRepo commentRepo;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int maxPageSize;
+
+    private final Duration tombstoneRetention;
+
+    public TaskSyncService(TaskRepo taskRepo,
+                           CommentRepo commentRepo,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${slay.app.sync.max-page-size:1000}") int maxPageSize,
+                           @Value("${slay.app.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.taskRepo = taskRepo;
+        this.commentRepo = commentRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPageSize = maxPageSize;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Returns up to {@code pageSize} changes after the cursor, or from the beginning without one.
+     * Every change carries the current state of its task or comment, a row changed several times since
+     * the cursor is returned once.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
+    public TaskChangesDTO getChanges(String since, int pageSize) {
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        Instant now = Instant.now();
+        PageCursor.ChangeKey key;
+        if (StringUtils.hasText(since)) {
+            key = PageCursor.decodeChange(since);
+            if (Instant.ofEpochSecond(key.syncedAt()).isBefore(now.minus(tombstoneRetention))) {
+                throw SyncCursorExpiredException.builder().build();
+            }
+        } else {
+            key = new PageCursor.ChangeKey(0, 0, now.getEpochSecond());
+        }
+
+        // One extra row tells whether there is a next page without running a count query
+        List<TaskChange> changes = taskRepo.findChangesAfter(Long.toString(key.xid()), key.seq(), pageSize + 1);
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        List<Integer> taskIds = new ArrayList<>();
+        List<Long> commentIds = new ArrayList<>();
+        TaskChangesDTO result = new TaskChangesDTO();
+        for (TaskChange change : changes) {
+            switch (change.getKind()) {
+                case "TASK" -> taskIds.add(change.getId().intValue());
+                case "COMMENT" -> commentIds.add(change.getId());
+                case "TASK_DELETED" -> result.getDeletedTasks().add(change.getId().intValue());
+                case "COMMENT_DELETED" -> result.getDeletedComments().add(change.getId());
+                default -> throw new IllegalStateException("Unknown change kind: " + change.getKind());
+            }
+        }
+
+        // Rows deleted meanwhile are missing here, their tombstones come with a later page
+        if (!taskIds.isEmpty()) {
+            result.setTasks(taskRepo.findTaskViews(TaskSpecifications.hasIdIn(taskIds), ALL_FIELDS, 0, taskIds.size()));
+        }
+        if (!commentIds.isEmpty()) {
+            result.setComments(commentRepo.findViewsByIdIn(commentIds));
+        }
+
+        // The client is only up to date once it has read the last page
+        long syncedAt = hasMore ? key.syncedAt() : now.getEpochSecond();
+        if (!changes.isEmpty()) {
+            TaskChange last = changes.get(changes.size() - 1);
+            key = new PageCursor.ChangeKey(last.getXid(), last.getSeq(), syncedAt);
+        } else {
+            key = new PageCursor.ChangeKey(key.xid(), key.seq(), syncedAt);
+        }
+        result.setHasMore(hasMore);
+        result.setNextCursor(PageCursor.encode(key));
+        return result;
+    }
+
+    /**
+     * Deletes tombstones no accepted cursor can still need. The margin covers deletes whose transaction
+     * committed, and so became visible to clients, well after the row was deleted.
+     * <p>
+     * Runs through JDBC: Hibernate cannot tell which entities a native statement touches and would evict the
+     * whole second-level cache on every purge.
+     */
+    @Scheduled(fixedDelayString = "${slay.app.sync.purge-interval:1h}")
+    public void purgeTombstones() {
+        Instant before = Instant.now().minus(tombstoneRetention).minus(PURGE_MARGIN);
+        int purged = jdbcTemplate.update(PURGE_TOMBSTONES, Timestamp.from(before));
+        if (purged > 0) {
+            logger.info("Purged {} tombstones", purged);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.persdsr.taskmanagementsystem.service.event;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+
+/**
+ * A task was created, updated or deleted. {@code before} is missing for created tasks, {@code after} for deleted ones.
+ * Listeners that keep derived state should use {@code @TransactionalEventListener} so that they only see
+ * committed changes.
+ */
+public record TaskChangedEvent(Type type, int taskId, TaskSnapshot before, TaskSnapshot after) implements TaskEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static TaskChangedEvent created(TaskEntity task) {
+        return created(task.getId(), TaskSnapshot.of(task));
+    }
+
+    public static TaskChangedEvent created(int taskId, TaskSnapshot task) {
+        return new TaskChangedEvent(Type.CREATED, taskId, null, task);
+    }
+
+    public static TaskChangedEvent updated(TaskSnapshot before, TaskEntity task) {
+        return new TaskChangedEvent(Type.UPDATED, task.getId(), before, TaskSnapshot.of(task));
+    }
+
+    public static TaskChangedEvent deleted(TaskEntity task) {
+        return new TaskChangedEvent(Type.DELETED, task.getId(), TaskSnapshot.of(task), null);
+    }
+
+    @Override
+    public int partitionKey() {
+        return taskId;
+    }
+
+    @Override
+    public String name() {
+        return "TASK_" + type;
+    }
+}
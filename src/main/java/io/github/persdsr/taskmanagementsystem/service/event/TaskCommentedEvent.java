@@ -0,0 +1,17 @@
+package io.github.persdsr.taskmanagementsystem.service.event;
+
+/**
+ * A comment was added to a task.
+ */
+public record TaskCommentedEvent(int taskId, Long commentId, String author) implements TaskEvent {
+
+    @Override
+    public int partitionKey() {
+        return taskId;
+    }
+
+    @Override
+    public String name() {
+        return "TASK_COMMENTED";
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.persdsr.taskmanagementsystem.service.event;
+
+/**
+ * Task lifecycle event. Published by {@code TaskService} inside the transaction that makes the change and handed
+ * to {@link TaskEventBus} consumers once that transaction has committed.
+ */
+public sealed interface TaskEvent permits TaskChangedEvent, TaskCommentedEvent {
+
+    /**
+     * Events with the same key reach a consumer in publication order, even when it runs several threads.
+     */
+    int partitionKey();
+
+    /**
+     * Name of the event for receivers outside the application, e.g. {@code TASK_CREATED}.
+     */
+    String name();
+}
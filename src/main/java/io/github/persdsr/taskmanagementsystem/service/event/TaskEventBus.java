@@ -0,0 +1,220 @@
+package io.github.persdsr.taskmanagementsystem.service.event;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands committed {@link TaskEvent}s to every {@link TaskEventConsumer} through a bounded ring buffer.
+ * <p>
+ * Publishing claims a slot with a compare-and-set and returns, consumers read the buffer on their own threads,
+ * so a slow consumer only ever delays itself. Once it falls a whole buffer behind, the backpressure policy
+ * decides: {@code DROP} (the default) discards the new event and tells every consumer to resync through
+ * {@link TaskEventConsumer#onEventsDropped()}, {@code BLOCK} makes the committing thread wait for a free slot.
+ * <p>
+ * A consumer with several threads gets one handler per thread, each delivering the events whose partition key
+ * falls on it, so events of the same task keep their order. Meters:
+ * {@code task.events.lag} (events published but not yet handled, per consumer) and {@code task.events.dropped}.
+ */
+@Component
+public class TaskEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventBus.class);
+
+    public enum Backpressure {
+        DROP, BLOCK
+    }
+
+    /**
+     * Preallocated slot of the ring buffer, overwritten by every lap.
+     */
+    private static final class Slot {
+        private TaskEvent event;
+    }
+
+    private final Backpressure backpressure;
+
+    private final Duration shutdownTimeout;
+
+    private final Counter dropped;
+
+    /** Events dropped since startup, compared by every consumer with the number it has already resynced for */
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private final Disruptor<Slot> disruptor;
+
+    private final RingBuffer<Slot> ringBuffer;
+
+    public TaskEventBus(ObjectProvider<TaskEventConsumer> consumers,
+                        MeterRegistry meterRegistry,
+                        Environment environment,
+                        @Value("${slay.app.events.buffer-size:8192}") int bufferSize,
+                        @Value("${slay.app.events.backpressure:DROP}") Backpressure backpressure,
+                        @Value("${slay.app.events.shutdown-timeout:5s}") Duration shutdownTimeout) {
+        this.backpressure = backpressure;
+        this.shutdownTimeout = shutdownTimeout;
+        this.dropped = Counter.builder("task.events.dropped")
+                .description("Task events discarded because the buffer was full")
+                .register(meterRegistry);
+
+        List<TaskEventConsumer> registered = consumers.orderedStream().toList();
+        if (registered.isEmpty()) {
+            this.disruptor = null;
+            this.ringBuffer = null;
+            return;
+        }
+
+        this.disruptor = new Disruptor<>(Slot::new, bufferSize, DaemonThreadFactory.INSTANCE,
+                ProducerType.MULTI, new SleepingWaitStrategy());
+        this.disruptor.setDefaultExceptionHandler(new LoggingExceptionHandler());
+
+        for (TaskEventConsumer consumer : registered) {
+            int threads = environment.getProperty("slay.app.events.threads." + consumer.name(), Integer.class,
+                    consumer.threads());
+            if (threads < 1) {
+                throw new IllegalArgumentException("Consumer " + consumer.name() + " needs at least one thread");
+            }
+
+            AtomicLong resynced = new AtomicLong();
+            List<Shard> shards = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                shards.add(new Shard(consumer, i, threads, resynced));
+            }
+            disruptor.handleEventsWith(shards.toArray(Shard[]::new));
+
+            Gauge.builder("task.events.lag", () -> lag(shards))
+                    .description("Task events published but not yet handled by the consumer")
+                    .tag("consumer", consumer.name())
+                    .register(meterRegistry);
+        }
+
+        this.ringBuffer = disruptor.start();
+        logger.info("Task event bus started for {} consumers, {} slots, {} when full",
+                registered.size(), bufferSize, backpressure);
+    }
+
+    /**
+     * Forwards an event once the transaction publishing it has committed, or at once outside of transactions.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommitted(TaskEvent event) {
+        publish(event);
+    }
+
+    public void publish(TaskEvent event) {
+        if (ringBuffer == null) {
+            return;
+        }
+
+        if (backpressure == Backpressure.BLOCK) {
+            ringBuffer.publishEvent((slot, sequence) -> slot.event = event);
+        } else if (!ringBuffer.tryPublishEvent((slot, sequence) -> slot.event = event)) {
+            droppedEvents.incrementAndGet();
+            dropped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (disruptor == null) {
+            return;
+        }
+
+        try {
+            disruptor.shutdown(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Task event consumers did not catch up within {}, {} events are discarded",
+                    shutdownTimeout, ringBuffer.getCursor() - ringBuffer.getMinimumGatingSequence());
+            disruptor.halt();
+        }
+    }
+
+    private double lag(List<Shard> shards) {
+        long cursor = ringBuffer.getCursor();
+        long slowest = shards.stream()
+                .mapToLong(disruptor::getSequenceValueFor)
+                .min()
+                .orElse(cursor);
+        return cursor - slowest;
+    }
+
+    /**
+     * One thread of a consumer.
+     */
+    private final class Shard implements EventHandler<Slot> {
+
+        private final TaskEventConsumer consumer;
+
+        private final int index;
+
+        private final int count;
+
+        /** Dropped events the consumer has resynced for, shared by its shards */
+        private final AtomicLong resynced;
+
+        private Shard(TaskEventConsumer consumer, int index, int count, AtomicLong resynced) {
+            this.consumer = consumer;
+            this.index = index;
+            this.count = count;
+            this.resynced = resynced;
+        }
+
+        @Override
+        public void onStart() {
+            Thread.currentThread().setName("task-events-" + consumer.name() + "-" + index);
+        }
+
+        @Override
+        public void onEvent(Slot slot, long sequence, boolean endOfBatch) {
+            long lost = droppedEvents.get();
+            long seen = resynced.get();
+            if (lost != seen && resynced.compareAndSet(seen, lost)) {
+                consumer.onEventsDropped();
+            }
+
+            if (Math.floorMod(slot.event.partitionKey(), count) == index) {
+                consumer.onEvent(slot.event);
+            }
+        }
+    }
+
+    private static final class LoggingExceptionHandler implements ExceptionHandler<Slot> {
+
+        @Override
+        public void handleEventException(Throwable ex, long sequence, Slot slot) {
+            logger.error("Task event consumer failed on {}", slot.event, ex);
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            logger.error("Task event consumer failed to start", ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            logger.error("Task event consumer failed to stop", ex);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.persdsr.taskmanagementsystem.service.event;
+
+/**
+ * Receives committed task events from {@link TaskEventBus} on threads of its own, never on the thread that
+ * made the change. Every bean implementing this interface is registered with the bus at startup.
+ */
+public interface TaskEventConsumer {
+
+    /**
+     * Names the consumer's threads and metrics, and its {@code slay.app.events.threads.<name>} property.
+     */
+    String name();
+
+    void onEvent(TaskEvent event);
+
+    /**
+     * Threads used unless {@code slay.app.events.threads.<name>} says otherwise. Events are spread over the threads
+     * by {@link TaskEvent#partitionKey()}, so with more than one thread {@link #onEvent(TaskEvent)} must be thread-safe.
+     */
+    default int threads() {
+        return 1;
+    }
+
+    /**
+     * Events were dropped because the buffer was full, state derived from the events should be rebuilt.
+     * Called once on one of the consumer's threads before the next event is delivered.
+     */
+    default void onEventsDropped() {
+    }
+}
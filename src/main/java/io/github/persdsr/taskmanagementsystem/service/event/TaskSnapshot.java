@@ -0,0 +1,45 @@
+package io.github.persdsr.taskmanagementsystem.service.event;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.repository.TaskState;
+
+/**
+ * Immutable copy of the task columns an event carries, users by id and username. Ids route the event to
+ * the users it concerns, usernames are what receivers show.
+ */
+public record TaskSnapshot(String title, String description, TaskStatus status, TaskPriority priority,
+                           Integer authorId, String author, Integer performerId, String performer) {
+
+    public static TaskSnapshot of(TaskEntity task) {
+        return new TaskSnapshot(task.getTitle(), task.getDescription(), task.getStatus(), task.getPriority(),
+                id(task.getAuthor()), username(task.getAuthor()), id(task.getPerformer()), username(task.getPerformer()));
+    }
+
+    public static TaskSnapshot of(TaskState task) {
+        return new TaskSnapshot(task.title(), task.description(), task.status(), task.priority(),
+                task.authorId(), task.author(), task.performerId(), task.performer());
+    }
+
+    /**
+     * Copy with the non-null changes applied, as done by a set-based update.
+     */
+    public TaskSnapshot withChanges(TaskStatus status, TaskPriority priority, UserEntity performer) {
+        return new TaskSnapshot(title, description,
+                status == null ? this.status : status,
+                priority == null ? this.priority : priority,
+                authorId, author,
+                performer == null ? performerId : performer.getId(),
+                performer == null ? this.performer : performer.getUsername());
+    }
+
+    private static Integer id(UserEntity user) {
+        return user == null ? null : user.getId();
+    }
+
+    private static String username(UserEntity user) {
+        return user == null ? null : user.getUsername();
+    }
+}
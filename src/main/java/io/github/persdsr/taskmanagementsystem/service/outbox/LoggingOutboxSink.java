@@ -0,0 +1,26 @@
+package io.github.persdsr.taskmanagementsystem.service.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Local sink that only logs the messages, used until a real destination is configured.
+ */
+@Component
+@ConditionalOnProperty(name = "slay.app.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxSink implements OutboxSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    @Override
+    public void send(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            logger.info("Outbox message {} for task {}: {} {}",
+                    message.id(), message.taskId(), message.type(), message.payload());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.persdsr.taskmanagementsystem.service.outbox;
+
+import java.time.Instant;
+
+/**
+ * Row of the task outbox. {@code payload} is the JSON of the task event, {@code id} grows with every row
+ * and can be used by receivers to drop messages they have already seen.
+ */
+public record OutboxMessage(long id, int taskId, String type, String payload, Instant createdAt) {
+}
@@ -0,0 +1,15 @@
+package io.github.persdsr.taskmanagementsystem.service.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of the task outbox, e.g. a message broker.
+ * <p>
+ * Messages arrive in batches ordered by id. A batch counts as delivered when {@link #send(List)} returns; if it
+ * throws, or the application stops before the batch is deleted, the same messages are sent again later.
+ * Receivers must therefore tolerate duplicates.
+ */
+public interface OutboxSink {
+
+    void send(List<OutboxMessage> messages) throws Exception;
+}
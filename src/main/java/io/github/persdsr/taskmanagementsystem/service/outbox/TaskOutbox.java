@@ -0,0 +1,81 @@
+package io.github.persdsr.taskmanagementsystem.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes every task event to the {@code task_outbox} table in the transaction that publishes it, so the
+ * change and its message are committed or rolled back together.
+ * <p>
+ * Events are collected while the transaction runs and inserted with one JDBC batch right before it commits,
+ * so a chunk of an import costs a single round trip. Events published outside of a transaction are inserted
+ * at once.
+ */
+@Component
+public class TaskOutbox {
+
+    private static final String INSERT = "insert into task_outbox (task_id, type, payload) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectWriter eventWriter;
+
+    public TaskOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventWriter = objectMapper.writer();
+    }
+
+    @EventListener
+    public void onTaskEvent(TaskEvent event) {
+        Object[] row = {event.partitionKey(), event.name(), payload(event)};
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jdbcTemplate.update(INSERT, row);
+            return;
+        }
+
+        PendingRows pending = (PendingRows) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRows();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.rows.add(row);
+    }
+
+    private String payload(TaskEvent event) {
+        try {
+            return eventWriter.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Task event cannot be written as JSON: " + event, e);
+        }
+    }
+
+    /**
+     * Rows of the current transaction, bound to it until it completes.
+     */
+    private final class PendingRows implements TransactionSynchronization {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            jdbcTemplate.batchUpdate(INSERT, rows);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(TaskOutbox.this);
+        }
+    }
+}
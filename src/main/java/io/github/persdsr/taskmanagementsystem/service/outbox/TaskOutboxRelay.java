@@ -0,0 +1,114 @@
+package io.github.persdsr.taskmanagementsystem.service.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Drains the task outbox into the {@link OutboxSink}.
+ * <p>
+ * Every batch is read, sent and deleted in one transaction. The rows are locked with {@code FOR UPDATE SKIP LOCKED},
+ * so several instances drain the table side by side, each taking rows no other instance holds. A batch the sink
+ * rejects is rolled back and stays in the table for the next poll.
+ * <p>
+ * Ordering is per task, not global. Message ids are taken when the rows are inserted, right before their
+ * transaction commits, so a transaction may commit after a later id has already been relayed, and batches of
+ * different instances may be delivered interleaved. Updates and deletes of a task hold its row lock until they
+ * commit, so their messages for that task commit in id order and receivers should order by message id within a
+ * {@code taskId}; comment messages are not ordered against them.
+ */
+@Component
+public class TaskOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskOutboxRelay.class);
+
+    private static final String SELECT_BATCH = """
+            select id, task_id, type, payload, created_at
+            from task_outbox
+            order by id
+            limit ?
+            for update skip locked""";
+
+    private static final String DELETE = "delete from task_outbox where id = ?";
+
+    private static final RowMapper<OutboxMessage> MESSAGE_MAPPER = (resultSet, rowNum) -> new OutboxMessage(
+            resultSet.getLong("id"),
+            resultSet.getInt("task_id"),
+            resultSet.getString("type"),
+            resultSet.getString("payload"),
+            resultSet.getObject("created_at", Timestamp.class).toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final OutboxSink sink;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter relayed;
+
+    private final int batchSize;
+
+    public TaskOutboxRelay(JdbcTemplate jdbcTemplate,
+                           OutboxSink sink,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${slay.app.outbox.batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.relayed = Counter.builder("task.outbox.relayed")
+                .description("Outbox messages accepted by the sink")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sends batches until the table is drained or the sink fails.
+     *
+     * @return number of messages sent
+     */
+    @Scheduled(fixedDelayString = "${slay.app.outbox.poll-interval:1s}")
+    public int relay() {
+        int total = 0;
+        try {
+            int sent;
+            do {
+                sent = transactionTemplate.execute(transaction -> relayBatch());
+                total += sent;
+            } while (sent == batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Outbox relay stopped after {} messages, the rest is retried on the next poll", total, e);
+        }
+        return total;
+    }
+
+    private int relayBatch() {
+        List<OutboxMessage> batch = jdbcTemplate.query(SELECT_BATCH, MESSAGE_MAPPER, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            sink.send(batch);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Outbox sink failed", e);
+        }
+
+        jdbcTemplate.batchUpdate(DELETE, batch.stream().map(message -> new Object[]{message.id()}).toList());
+        relayed.increment(batch.size());
+        return batch.size();
+    }
+}
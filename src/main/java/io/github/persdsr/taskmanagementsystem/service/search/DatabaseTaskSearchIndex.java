@@ -0,0 +1,30 @@
+package io.github.persdsr.taskmanagementsystem.service.search;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Searches the {@code search_vector} column maintained by PostgreSQL, see the V4 migration.
+ */
+@Component
+@ConditionalOnProperty(name = "slay.app.search.backend", havingValue = "database", matchIfMissing = true)
+@AllArgsConstructor
+public class DatabaseTaskSearchIndex implements TaskSearchIndex {
+
+    private final TaskRepo taskRepo;
+
+    @Override
+    public List<TaskDTO> search(String query, Specification<TaskEntity> specification, Set<TaskField> fields,
+                                Float afterRank, Integer afterId, int limit) {
+        return taskRepo.searchTaskViews(query, specification, fields, afterRank, afterId, limit);
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.persdsr.taskmanagementsystem.service.search;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.service.TaskSpecifications;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Searches an inverted index kept in the application, for databases without full-text search.
+ * <p>
+ * The index is built before the application starts serving requests, reading tasks in chunks and tokenizing
+ * each chunk in parallel. Afterwards it follows committed {@link TaskChangedEvent}s, so it only sees changes
+ * made through this instance. Filters, projections and tasks deleted in the meantime are resolved by
+ * loading the views of the best candidates from the database.
+ */
+@Component
+@ConditionalOnProperty(name = "slay.app.search.backend", havingValue = "memory")
+public class InMemoryTaskSearchIndex implements TaskSearchIndex, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTaskSearchIndex.class);
+
+    private static final Set<TaskField> TEXT_FIELDS = EnumSet.of(TaskField.TITLE, TaskField.DESCRIPTION);
+
+    /** Least number of candidates whose views are loaded with one query */
+    private static final int MIN_CANDIDATES = 100;
+
+    private final TaskInvertedIndex index = new TaskInvertedIndex();
+
+    private final TaskRepo taskRepo;
+
+    private final int chunkSize;
+
+    public InMemoryTaskSearchIndex(TaskRepo taskRepo, @Value("${slay.app.search.chunk-size:10000}") int chunkSize) {
+        this.taskRepo = taskRepo;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+
+        List<TaskDTO> chunk;
+        int after = 0;
+        do {
+            chunk = taskRepo.findTaskViews(TaskSpecifications.idGreaterThan(after), TEXT_FIELDS, 0, chunkSize);
+            index.putAll(chunk.parallelStream()
+                    .map(task -> TaskInvertedIndex.Document.of(task.getId(), task.getTitle(), task.getDescription()))
+                    .toList());
+            if (!chunk.isEmpty()) {
+                after = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == chunkSize);
+
+        logger.info("Indexed {} tasks in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> index.put(event.taskId(), event.after().title(), event.after().description());
+            case DELETED -> index.remove(event.taskId());
+        }
+    }
+
+    @Override
+    public List<TaskDTO> search(String query, Specification<TaskEntity> specification, Set<TaskField> fields,
+                                Float afterRank, Integer afterId, int limit) {
+        List<TaskInvertedIndex.Hit> hits = index.search(query);
+
+        int from = 0;
+        if (afterRank != null && afterId != null) {
+            while (from < hits.size() && !isAfter(hits.get(from), afterRank, afterId)) {
+                from++;
+            }
+        }
+
+        List<TaskDTO> tasks = new ArrayList<>(limit);
+        int candidates = Math.max(limit, MIN_CANDIDATES);
+        for (int start = from; start < hits.size() && tasks.size() < limit; start += candidates) {
+            List<TaskInvertedIndex.Hit> page = hits.subList(start, Math.min(start + candidates, hits.size()));
+            List<Integer> ids = page.stream().map(TaskInvertedIndex.Hit::id).toList();
+
+            Map<Integer, TaskDTO> views = taskRepo.findTaskViews(
+                            specification.and(TaskSpecifications.hasIdIn(ids)), fields, 0, ids.size())
+                    .stream()
+                    .collect(Collectors.toMap(TaskDTO::getId, Function.identity()));
+
+            for (TaskInvertedIndex.Hit hit : page) {
+                TaskDTO view = views.get(hit.id());
+                if (view != null && tasks.size() < limit) {
+                    view.setRank(hit.rank());
+                    tasks.add(view);
+                }
+            }
+        }
+        return tasks;
+    }
+
+    private static boolean isAfter(TaskInvertedIndex.Hit hit, float afterRank, int afterId) {
+        return hit.rank() < afterRank || (hit.rank() == afterRank && hit.id() > afterId);
+    }
+}
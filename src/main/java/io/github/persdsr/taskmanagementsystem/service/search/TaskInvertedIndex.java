@@ -0,0 +1,389 @@
+package io.github.persdsr.taskmanagementsystem.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over task titles and descriptions.
+ * <p>
+ * Every term keeps one posting list for titles and one for descriptions, each a sorted array of task ids,
+ * so AND, OR and exclusion are merges of primitive arrays. The dictionary is sorted, a prefix query reads
+ * the range of terms starting with the prefix. The terms of every task are remembered as well, so a task
+ * is re-indexed or removed without scanning the dictionary.
+ * <p>
+ * Queries follow the web search syntax of the database backend: words must all match, {@code or} separates
+ * alternatives and {@code -word} excludes a word. In addition {@code word*} matches every word starting with
+ * {@code word}. Quotes are ignored, so a phrase matches its words anywhere in the task.
+ * <p>
+ * Thread-safe: searches share a read lock, changes take the write lock.
+ */
+public class TaskInvertedIndex {
+
+    /** Rank of a title match, the weight ts_rank gives to the A label */
+    static final float TITLE_WEIGHT = 1.0f;
+
+    /** Rank of a description match, the weight ts_rank gives to the B label */
+    static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private static final String OR = "or";
+    private static final char PREFIX = '*';
+    private static final char EXCLUDE = '-';
+    private static final int[] EMPTY = new int[0];
+
+    private static final Comparator<Hit> BY_RANK = Comparator.comparing(Hit::rank, Comparator.reverseOrder())
+            .thenComparingInt(Hit::id);
+
+    private final NavigableMap<String, Postings> dictionary = new TreeMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Hit(int id, float rank) {
+    }
+
+    /**
+     * Distinct terms of a task per field. Tokenizing is the expensive part of indexing, so documents
+     * can be built in parallel and handed to {@link #putAll(List)}.
+     */
+    public record Document(int id, String[] titleTerms, String[] descriptionTerms) {
+
+        public static Document of(int id, String title, String description) {
+            return new Document(id, distinctTerms(title), distinctTerms(description));
+        }
+    }
+
+    private record Term(String text, boolean prefix) {
+
+        boolean matches(String term) {
+            return prefix ? term.startsWith(text) : term.equals(text);
+        }
+    }
+
+    private record Clause(List<Term> required, List<Term> excluded) {
+    }
+
+    public void put(int id, String title, String description) {
+        Document document = Document.of(id, title, description);
+
+        lock.writeLock().lock();
+        try {
+            index(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the documents under a single lock. Appending in ascending id order keeps every posting list
+     * sorted without moving elements.
+     */
+    public void putAll(List<Document> documents) {
+        lock.writeLock().lock();
+        try {
+            documents.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All matching tasks ordered by rank, best first, then by id. The rank adds up the weights of the
+     * matched query words found in the title and in the description.
+     */
+    public List<Hit> search(String query) {
+        List<Clause> clauses = parse(query);
+
+        lock.readLock().lock();
+        try {
+            int[] ids = EMPTY;
+            for (Clause clause : clauses) {
+                ids = union(ids, evaluate(clause));
+            }
+
+            List<Term> terms = clauses.stream()
+                    .flatMap(clause -> clause.required().stream())
+                    .distinct()
+                    .toList();
+            List<Hit> hits = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                hits.add(new Hit(id, rank(documents.get(id), terms)));
+            }
+            hits.sort(BY_RANK);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(Document document) {
+        unindex(document.id());
+        for (String term : document.titleTerms()) {
+            dictionary.computeIfAbsent(term, key -> new Postings()).title.add(document.id());
+        }
+        for (String term : document.descriptionTerms()) {
+            dictionary.computeIfAbsent(term, key -> new Postings()).description.add(document.id());
+        }
+        documents.put(document.id(), document);
+    }
+
+    private void unindex(int id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.titleTerms()) {
+            Postings postings = dictionary.get(term);
+            postings.title.remove(id);
+            removeIfEmpty(term, postings);
+        }
+        for (String term : document.descriptionTerms()) {
+            Postings postings = dictionary.get(term);
+            postings.description.remove(id);
+            removeIfEmpty(term, postings);
+        }
+    }
+
+    private void removeIfEmpty(String term, Postings postings) {
+        if (postings.title.size == 0 && postings.description.size == 0) {
+            dictionary.remove(term);
+        }
+    }
+
+    /**
+     * Tasks having all required terms and none of the excluded ones. A clause without required terms
+     * matches nothing rather than every task.
+     */
+    private int[] evaluate(Clause clause) {
+        if (clause.required().isEmpty()) {
+            return EMPTY;
+        }
+        int[] ids = postings(clause.required().get(0));
+        for (int i = 1; i < clause.required().size() && ids.length > 0; i++) {
+            ids = intersect(ids, postings(clause.required().get(i)));
+        }
+        for (Term term : clause.excluded()) {
+            ids = difference(ids, postings(term));
+        }
+        return ids;
+    }
+
+    private int[] postings(Term term) {
+        if (!term.prefix()) {
+            Postings postings = dictionary.get(term.text());
+            return postings == null ? EMPTY : union(postings.title.toArray(), postings.description.toArray());
+        }
+        int[] ids = EMPTY;
+        for (Postings postings : dictionary.subMap(term.text(), true, term.text() + Character.MAX_VALUE, false).values()) {
+            ids = union(ids, union(postings.title.toArray(), postings.description.toArray()));
+        }
+        return ids;
+    }
+
+    private static float rank(Document document, List<Term> terms) {
+        float rank = 0;
+        for (Term term : terms) {
+            if (containsMatch(document.titleTerms(), term)) {
+                rank += TITLE_WEIGHT;
+            }
+            if (containsMatch(document.descriptionTerms(), term)) {
+                rank += DESCRIPTION_WEIGHT;
+            }
+        }
+        return rank;
+    }
+
+    private static boolean containsMatch(String[] documentTerms, Term term) {
+        for (String documentTerm : documentTerms) {
+            if (term.matches(documentTerm)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        Clause clause = new Clause(new ArrayList<>(), new ArrayList<>());
+
+        for (String token : query.trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (token.equalsIgnoreCase(OR)) {
+                clauses.add(clause);
+                clause = new Clause(new ArrayList<>(), new ArrayList<>());
+                continue;
+            }
+
+            boolean excluded = token.charAt(0) == EXCLUDE;
+            boolean prefix = token.charAt(token.length() - 1) == PREFIX;
+            List<String> words = tokenize(token);
+            for (int i = 0; i < words.size(); i++) {
+                Term term = new Term(words.get(i), prefix && i == words.size() - 1);
+                (excluded ? clause.excluded() : clause.required()).add(term);
+            }
+        }
+        clauses.add(clause);
+        return clauses;
+    }
+
+    private static String[] distinctTerms(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return new LinkedHashSet<>(tokenize(text)).toArray(String[]::new);
+    }
+
+    /**
+     * Lower-cased runs of letters and digits, the same words the {@code simple} text search configuration produces.
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < lowerCase.length(); i++) {
+            if (Character.isLetterOrDigit(lowerCase.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            words.add(lowerCase.substring(start));
+        }
+        return words;
+    }
+
+    static int[] union(int[] left, int[] right) {
+        if (left.length == 0) {
+            return right;
+        }
+        if (right.length == 0) {
+            return left;
+        }
+        int[] result = new int[left.length + right.length];
+        int i = 0, j = 0, size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                result[size++] = left[i++];
+            } else if (left[i] > right[j]) {
+                result[size++] = right[j++];
+            } else {
+                result[size++] = left[i++];
+                j++;
+            }
+        }
+        while (i < left.length) {
+            result[size++] = left[i++];
+        }
+        while (j < right.length) {
+            result[size++] = right[j++];
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int i = 0, j = 0, size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    static int[] difference(int[] left, int[] right) {
+        if (right.length == 0) {
+            return left;
+        }
+        int[] result = new int[left.length];
+        int i = 0, j = 0, size = 0;
+        while (i < left.length) {
+            if (j == right.length || left[i] < right[j]) {
+                result[size++] = left[i++];
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static final class Postings {
+        private final IntList title = new IntList();
+        private final IntList description = new IntList();
+    }
+
+    /**
+     * Growable sorted array of distinct ints.
+     */
+    private static final class IntList {
+        private int[] values = EMPTY;
+        private int size;
+
+        void add(int value) {
+            int index = size == 0 || values[size - 1] < value ? size : Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                index = -index - 1;
+            } else if (index < size) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+
+        void remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
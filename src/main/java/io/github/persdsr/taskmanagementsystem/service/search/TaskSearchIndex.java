@@ -0,0 +1,23 @@
+package io.github.persdsr.taskmanagementsystem.service.search;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Backend of the task search endpoint, selected with {@code slay.app.search.backend}:
+ * {@code database} (default) uses the PostgreSQL full-text column, {@code memory} an inverted index kept in the application.
+ */
+public interface TaskSearchIndex {
+
+    /**
+     * Tasks matching the query and the specification, ordered by rank, best first, then by id. Views carry
+     * their rank; passing the rank and id of the last view of a page continues after it.
+     */
+    List<TaskDTO> search(String query, Specification<TaskEntity> specification, Set<TaskField> fields,
+                         Float afterRank, Integer afterId, int limit);
+}
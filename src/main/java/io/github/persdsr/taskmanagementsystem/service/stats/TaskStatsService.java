@@ -0,0 +1,178 @@
+package io.github.persdsr.taskmanagementsystem.service.stats;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskStatsDTO;
+import io.github.persdsr.taskmanagementsystem.repository.TaskCount;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskEventConsumer;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts tasks by performer, status and priority without querying the task table on every request.
+ * <p>
+ * The counts are built with one {@code GROUP BY} at startup and then follow committed {@link TaskChangedEvent}s:
+ * the state before a change is counted down and the state after it counted up, on striped {@link LongAdder}s
+ * so that concurrent updates of the same count do not contend. Set-based updates publish an event per task and
+ * are counted the same way, only dropped events leave gaps and rebuild the counts from the database. Tasks without
+ * a status or priority are counted under {@value #NONE}. The counts only follow changes made
+ * through this instance, and events in flight during a rebuild may be missed or counted twice, so they are
+ * also rebuilt every {@code slay.app.stats.reconcile-interval}.
+ */
+@Service
+public class TaskStatsService implements TaskEventConsumer, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatsService.class);
+
+    /** Status or priority of the count of tasks that have none */
+    static final String NONE = "NONE";
+
+    private static final Comparator<Key> ORDER = Comparator
+            .comparing(Key::performer, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Key::status, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Key::priority, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private record Key(String performer, TaskStatus status, TaskPriority priority) {
+
+        static Key of(TaskSnapshot task) {
+            return new Key(task.performer(), task.status(), task.priority());
+        }
+    }
+
+    private final TaskRepo taskRepo;
+
+    private final Counter corrected;
+
+    /** Replaced as a whole by a rebuild, so that readers never see a half-built map */
+    private volatile Map<Key, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public TaskStatsService(TaskRepo taskRepo, MeterRegistry meterRegistry) {
+        this.taskRepo = taskRepo;
+        this.corrected = Counter.builder("task.stats.corrected")
+                .description("Task counts found to differ from the database by the periodic reconciliation")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Counts of tasks per performer, status and priority, unassigned tasks have no performer.
+     *
+     * @param performer only counts of this performer, all of them if {@code null}
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public TaskStatsDTO getStats(String performer) {
+        TaskStatsDTO stats = new TaskStatsDTO();
+        counts.entrySet().stream()
+                .filter(entry -> performer == null || performer.equals(entry.getKey().performer()))
+                .sorted(Map.Entry.comparingByKey(ORDER))
+                .forEach(entry -> {
+                    Key key = entry.getKey();
+                    long count = entry.getValue().sum();
+                    if (count != 0) {
+                        stats.getCounts().add(new TaskStatsDTO.Count(key.performer(), name(key.status()),
+                                name(key.priority()), count));
+                        stats.setTotal(stats.getTotal() + count);
+                    }
+                });
+        return stats;
+    }
+
+    /**
+     * Recounts everything from the database at once, for recovery after changes made around the application.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public TaskStatsDTO rebuildStats() {
+        rebuild();
+        return getStats(null);
+    }
+
+    @Scheduled(fixedDelayString = "${slay.app.stats.reconcile-interval:5m}",
+            initialDelayString = "${slay.app.stats.reconcile-interval:5m}")
+    public void reconcile() {
+        int differing = rebuild();
+        corrected.increment(differing);
+        if (differing > 0) {
+            logger.info("Reconciled task counts, {} of them differed from the database", differing);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "stats";
+    }
+
+    @Override
+    public void onEvent(TaskEvent event) {
+        if (event instanceof TaskChangedEvent changed) {
+            if (changed.before() != null && changed.after() != null
+                    && Key.of(changed.before()).equals(Key.of(changed.after()))) {
+                return;
+            }
+            Map<Key, LongAdder> current = counts;
+            if (changed.before() != null) {
+                count(current, changed.before(), -1);
+            }
+            if (changed.after() != null) {
+                count(current, changed.after(), 1);
+            }
+        }
+    }
+
+    @Override
+    public void onEventsDropped() {
+        rebuild();
+    }
+
+    /**
+     * @return number of counts that differed from the database
+     */
+    private int rebuild() {
+        Map<Key, LongAdder> rebuilt = new ConcurrentHashMap<>();
+        for (TaskCount row : taskRepo.countByPerformerStatusAndPriority()) {
+            LongAdder adder = new LongAdder();
+            adder.add(row.getCount());
+            rebuilt.put(new Key(row.getPerformer(), row.getStatus(), row.getPriority()), adder);
+        }
+
+        Map<Key, LongAdder> previous = counts;
+        counts = rebuilt;
+
+        Set<Key> keys = new HashSet<>(previous.keySet());
+        keys.addAll(rebuilt.keySet());
+        return (int) keys.stream().filter(key -> sum(previous, key) != sum(rebuilt, key)).count();
+    }
+
+    private static void count(Map<Key, LongAdder> counts, TaskSnapshot task, int delta) {
+        counts.computeIfAbsent(Key.of(task), key -> new LongAdder()).add(delta);
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? NONE : value.name();
+    }
+
+    private static long sum(Map<Key, LongAdder> counts, Key key) {
+        LongAdder adder = counts.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.persdsr.taskmanagementsystem.service.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open event stream with its bounded queue of events not yet written.
+ * <p>
+ * Producers only offer to the queue and never touch the socket. The first offer to an idle connection
+ * schedules a drain on the writer pool, so at most one writer thread works for a connection at any time
+ * and an idle connection holds no thread at all.
+ */
+class TaskStreamConnection {
+
+    private final int userId;
+
+    private final SseEmitter emitter;
+
+    private final Queue<SseEmitter.SseEventBuilder> queue;
+
+    private final Executor writers;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    TaskStreamConnection(int userId, SseEmitter emitter, int bufferSize, Executor writers) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.writers = writers;
+    }
+
+    int userId() {
+        return userId;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * @return {@code false} when the buffer is full because the client does not keep up
+     */
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed.get()) {
+            return true;
+        }
+        if (!queue.offer(event)) {
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * Marks the connection closed and ends the response, events still queued are discarded.
+     *
+     * @return {@code false} if the connection was already closed
+     */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        queue.clear();
+        emitter.complete();
+        return true;
+    }
+
+    /**
+     * Marks the connection closed after the response has ended by itself, e.g. the client went away.
+     */
+    void discard() {
+        closed.set(true);
+        queue.clear();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            writers.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        SseEmitter.SseEventBuilder event;
+        while ((event = queue.poll()) != null) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the response has ended, the emitter's callbacks unregister the connection
+                discard();
+                return;
+            }
+        }
+        draining.set(false);
+        // An offer may have come between the last poll and the reset
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+}
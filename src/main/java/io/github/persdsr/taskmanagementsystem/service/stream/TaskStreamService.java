@@ -0,0 +1,241 @@
+package io.github.persdsr.taskmanagementsystem.service.stream;
+
+import io.github.persdsr.taskmanagementsystem.repository.TaskParticipants;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.security.services.UserDetailsImpl;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskCommentedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskEventConsumer;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes task events to the open event streams of the users they concern: the author and the performer
+ * of the task, before and after the change.
+ * <p>
+ * All streams share one map from user id to connections, fed by the event bus. Events carry the ids of the users
+ * they concern, so a stream keeps receiving them when its user is renamed. Delivering an event only puts it
+ * into the bounded buffer of each concerned connection, a small writer pool does the socket writes, so idle
+ * streams cost a map entry and a buffer but no thread. A client whose buffer fills up is disconnected and is
+ * expected to reconnect and reload; the same happens through a {@code resync} event to everyone when events
+ * were lost upstream.
+ */
+@Service
+public class TaskStreamService implements TaskEventConsumer, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStreamService.class);
+
+    static final String RESYNC = "resync";
+
+    private final Map<Integer, Set<TaskStreamConnection>> connections = new ConcurrentHashMap<>();
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private final TaskRepo taskRepo;
+
+    private final ExecutorService writers;
+
+    private final Counter evicted;
+
+    private final int bufferSize;
+
+    private final Duration timeout;
+
+    private volatile boolean running;
+
+    public TaskStreamService(TaskRepo taskRepo,
+                             MeterRegistry meterRegistry,
+                             @Value("${slay.app.stream.buffer-size:32}") int bufferSize,
+                             @Value("${slay.app.stream.writer-threads:4}") int writerThreads,
+                             @Value("${slay.app.stream.timeout:1h}") Duration timeout) {
+        this.taskRepo = taskRepo;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-stream-writer-");
+        threadFactory.setDaemon(true);
+        this.writers = Executors.newFixedThreadPool(writerThreads, threadFactory);
+
+        this.evicted = Counter.builder("task.stream.evicted")
+                .description("Event streams closed because the client did not keep up")
+                .register(meterRegistry);
+        Gauge.builder("task.stream.connections", connectionCount, AtomicInteger::get)
+                .description("Open task event streams")
+                .register(meterRegistry);
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter subscribe() {
+        UserDetailsImpl user = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return register(user.getId(), new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter register(int userId, SseEmitter emitter) {
+        TaskStreamConnection connection = new TaskStreamConnection(userId, emitter, bufferSize, writers);
+        emitter.onCompletion(() -> {
+            connection.discard();
+            unregister(connection);
+        });
+        emitter.onError(error -> {
+            connection.discard();
+            unregister(connection);
+        });
+        // Clients reconnect after the timeout, ending the response cleanly lets them do so at once
+        emitter.onTimeout(() -> {
+            connection.close();
+            unregister(connection);
+        });
+
+        connections.compute(userId, (user, userConnections) -> {
+            Set<TaskStreamConnection> updated = userConnections == null ? ConcurrentHashMap.newKeySet() : userConnections;
+            updated.add(connection);
+            return updated;
+        });
+        connectionCount.incrementAndGet();
+        // Commits the response headers, so the client sees the stream open before the first change
+        connection.offer(SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    @Override
+    public String name() {
+        return "stream";
+    }
+
+    @Override
+    public void onEvent(TaskEvent event) {
+        if (connections.isEmpty()) {
+            return;
+        }
+
+        if (event instanceof TaskChangedEvent changed) {
+            Set<Integer> users = new LinkedHashSet<>();
+            addParticipants(users, changed.before());
+            addParticipants(users, changed.after());
+            deliver(users, event);
+        } else if (event instanceof TaskCommentedEvent commented) {
+            taskRepo.findParticipantsById(commented.taskId())
+                    .ifPresent(participants -> deliver(participants(participants), event));
+        }
+    }
+
+    @Override
+    public void onEventsDropped() {
+        broadcastResync();
+    }
+
+    @Scheduled(fixedDelayString = "${slay.app.stream.heartbeat-interval:30s}")
+    public void sendHeartbeats() {
+        connections.values().forEach(userConnections ->
+                userConnections.forEach(connection -> offer(connection, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Ends all streams before the web server's graceful shutdown, which would otherwise wait for them as for
+     * any other active request.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        connections.values().forEach(userConnections -> userConnections.forEach(TaskStreamConnection::close));
+        writers.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    int connectionCount() {
+        return connectionCount.get();
+    }
+
+    private void deliver(Set<Integer> users, TaskEvent event) {
+        for (Integer user : users) {
+            Set<TaskStreamConnection> userConnections = connections.get(user);
+            if (userConnections == null) {
+                continue;
+            }
+            for (TaskStreamConnection connection : userConnections) {
+                // Built per connection, a builder is not safe to share between writer threads
+                offer(connection, SseEmitter.event().name(event.name()).data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    private void broadcastResync() {
+        connections.values().forEach(userConnections -> userConnections.forEach(connection ->
+                offer(connection, SseEmitter.event().name(RESYNC).data("{}", MediaType.APPLICATION_JSON))));
+    }
+
+    private void offer(TaskStreamConnection connection, SseEmitter.SseEventBuilder event) {
+        if (!connection.offer(event) && connection.close()) {
+            evicted.increment();
+            unregister(connection);
+            logger.debug("Closed the event stream of user {}, its buffer of {} events is full",
+                    connection.userId(), bufferSize);
+        }
+    }
+
+    /**
+     * Removes the connection, dropping the user's entry with the last one. Both happen atomically per user,
+     * so a connection registered meanwhile never ends up in a removed set.
+     */
+    private void unregister(TaskStreamConnection connection) {
+        connections.computeIfPresent(connection.userId(), (user, userConnections) -> {
+            if (userConnections.remove(connection)) {
+                connectionCount.decrementAndGet();
+            }
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private static void addParticipants(Set<Integer> users, TaskSnapshot task) {
+        if (task == null) {
+            return;
+        }
+        if (task.authorId() != null) {
+            users.add(task.authorId());
+        }
+        if (task.performerId() != null) {
+            users.add(task.performerId());
+        }
+    }
+
+    private static Set<Integer> participants(TaskParticipants participants) {
+        Set<Integer> users = new LinkedHashSet<>();
+        users.add(participants.getAuthorId());
+        if (participants.getPerformerId() != null) {
+            users.add(participants.getPerformerId());
+        }
+        return users;
+    }
+}
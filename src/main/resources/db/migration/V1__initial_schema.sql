@@ -0,0 +1,46 @@
+-- Schema of the entities at the time migrations were introduced: users, roles, tasks and comments with the
+-- pooled id sequences and the task version column. Fresh databases start from this script.
+-- Databases created earlier by spring.jpa.hibernate.ddl-auto already hold these tables, so they are baselined
+-- at this version and skip it; V2 adds what older ddl-auto schemas may lack (sequences, version column).
+
+create sequence users_seq start with 1 increment by 50;
+create sequence task_seq start with 1 increment by 50;
+create sequence comment_seq start with 1 increment by 50;
+
+create table users (
+    id       integer      not null,
+    username varchar(30)  not null,
+    email    varchar(255) not null,
+    password varchar(255) not null,
+    primary key (id)
+);
+
+create table user_roles (
+    user_id integer not null,
+    roles   varchar(255) check (roles in ('ROLE_USER', 'ROLE_ADMIN')),
+    constraint fk_user_roles_user foreign key (user_id) references users
+);
+
+create table task (
+    id           integer      not null,
+    title        varchar(100) not null,
+    description  varchar(500),
+    status       varchar(255) check (status in ('PENDING', 'IN_PROGRESS', 'COMPLETED')),
+    priority     varchar(255) check (priority in ('HIGH', 'MEDIUM', 'LOW')),
+    author_id    integer      not null,
+    performer_id integer,
+    version      bigint default 0 not null,
+    primary key (id),
+    constraint fk_task_author foreign key (author_id) references users,
+    constraint fk_task_performer foreign key (performer_id) references users
+);
+
+create table comment (
+    id        bigint        not null,
+    text      varchar(1000) not null,
+    author_id integer,
+    task_id   integer,
+    primary key (id),
+    constraint fk_comment_author foreign key (author_id) references users,
+    constraint fk_comment_task foreign key (task_id) references task
+);
@@ -0,0 +1,12 @@
+-- Databases baselined at V1 may predate the pooled sequences and the task version column.
+
+create sequence if not exists users_seq start with 1 increment by 50;
+create sequence if not exists task_seq start with 1 increment by 50;
+create sequence if not exists comment_seq start with 1 increment by 50;
+
+alter table task add column if not exists version bigint default 0 not null;
+
+-- Move every sequence past the ids issued so far, by IDENTITY columns or by pools already handed out
+select setval('users_seq', greatest((select coalesce(max(id), 0) from users), (select last_value from users_seq)) + 50, false);
+select setval('task_seq', greatest((select coalesce(max(id), 0) from task), (select last_value from task_seq)) + 50, false);
+select setval('comment_seq', greatest((select coalesce(max(id), 0) from comment), (select last_value from comment_seq)) + 50, false);
@@ -0,0 +1,14 @@
+-- Login and user lookups: UserRepo.findByEmail, findByUsername, existsByEmail, existsByUsername
+create unique index if not exists ux_users_email on users (email);
+create unique index if not exists ux_users_username on users (username);
+
+-- Eager roles of every loaded user
+create index if not exists idx_user_roles_user_id on user_roles (user_id);
+
+-- TaskSpecifications filters: the username is resolved through the unique index above,
+-- then tasks are found by author or performer id with the optional status and priority
+create index if not exists idx_task_author_status_priority on task (author_id, status, priority);
+create index if not exists idx_task_performer_status on task (performer_id, status);
+
+-- Keyset pages of comments and include=comments batches
+create index if not exists idx_comment_task_id_id on comment (task_id, id);
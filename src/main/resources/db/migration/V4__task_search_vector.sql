@@ -0,0 +1,11 @@
+-- Full-text search over title and description, kept in sync by PostgreSQL on every insert and update.
+-- The 'simple' configuration does not stem, so Russian and English text are matched alike.
+-- Keep the configuration in sync with TaskSearchFunctions.
+
+alter table task add column search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) stored;
+
+create index idx_task_search_vector on task using gin (search_vector);
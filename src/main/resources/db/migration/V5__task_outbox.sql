@@ -0,0 +1,11 @@
+-- Task events waiting to be forwarded to other systems, written in the transaction that made the change
+-- and deleted by TaskOutboxRelay once the sink has accepted them. The identity column gives the relay order,
+-- each row carries the id of the one task its event is about.
+create table task_outbox
+(
+    id         bigint generated always as identity primary key,
+    task_id    integer                  not null,
+    type       varchar(30)              not null,
+    payload    text                     not null,
+    created_at timestamp with time zone not null default current_timestamp
+);
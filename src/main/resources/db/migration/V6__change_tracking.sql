@@ -0,0 +1,58 @@
+-- Delta sync, see TaskSyncService. Every insert and update of a task or comment takes the next change_seq and
+-- records the writing transaction in change_xid, every delete leaves a tombstone stamped the same way.
+-- Readers page by (change_xid, change_seq) and only return changes of transactions older than all running ones,
+-- so a change committing late can never land behind a cursor already handed out. xid8 needs PostgreSQL 13.
+
+create sequence change_seq;
+
+create function stamp_change() returns trigger
+    language plpgsql as
+$$
+begin
+    new.change_seq := nextval('change_seq');
+    new.change_xid := pg_current_xact_id();
+    return new;
+end;
+$$;
+
+create table tombstone (
+    entity     varchar(10)              not null check (entity in ('TASK', 'COMMENT')),
+    entity_id  bigint                   not null,
+    change_seq bigint                   not null,
+    change_xid xid8                     not null,
+    deleted_at timestamp with time zone not null default clock_timestamp(),
+    primary key (entity, entity_id)
+);
+
+create function record_tombstone() returns trigger
+    language plpgsql as
+$$
+begin
+    insert into tombstone (entity, entity_id, change_seq, change_xid)
+    values (tg_argv[0], old.id, nextval('change_seq'), pg_current_xact_id());
+    return old;
+end;
+$$;
+
+-- Rows existing before change tracking count as changed by this migration
+alter table task add column change_seq bigint, add column change_xid xid8;
+update task set change_seq = nextval('change_seq'), change_xid = pg_current_xact_id();
+alter table task alter column change_seq set not null, alter column change_xid set not null;
+
+alter table comment add column change_seq bigint, add column change_xid xid8;
+update comment set change_seq = nextval('change_seq'), change_xid = pg_current_xact_id();
+alter table comment alter column change_seq set not null, alter column change_xid set not null;
+
+create trigger task_stamp_change before insert or update on task
+    for each row execute function stamp_change();
+create trigger comment_stamp_change before insert or update on comment
+    for each row execute function stamp_change();
+create trigger task_tombstone after delete on task
+    for each row execute function record_tombstone('TASK');
+create trigger comment_tombstone after delete on comment
+    for each row execute function record_tombstone('COMMENT');
+
+create index idx_task_change on task (change_xid, change_seq);
+create index idx_comment_change on comment (change_xid, change_seq);
+create index idx_tombstone_change on tombstone (change_xid, change_seq);
+create index idx_tombstone_deleted_at on tombstone (deleted_at);
@@ -0,0 +1,121 @@
+package io.github.persdsr.taskmanagementsystem.entity;
+
+import io.github.persdsr.taskmanagementsystem.model.Role;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Entities inserted by the running transaction are never cached, so this test commits its data.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private int authorId;
+
+    private int taskId;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        taskId = inTransaction(entityManager -> {
+            UserEntity author = UserEntity.builder()
+                    .username("author")
+                    .email("author@mail.ru")
+                    .password("Password1234")
+                    .roles(Set.of(Role.ROLE_USER))
+                    .build();
+            entityManager.persist(author);
+
+            TaskEntity task = TaskEntity.builder()
+                    .title("Task")
+                    .status(TaskStatus.PENDING)
+                    .author(author)
+                    .build();
+            entityManager.persist(task);
+            authorId = author.getId();
+            return task.getId();
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        // removing the author cascades to the task and the roles
+        runInTransaction(entityManager -> entityManager.remove(entityManager.find(UserEntity.class, authorId)));
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void find_SecondLoadIsServedFromCache() {
+        inTransaction(entityManager -> entityManager.find(TaskEntity.class, taskId));
+        statistics.clear();
+
+        TaskEntity task = inTransaction(entityManager -> entityManager.find(TaskEntity.class, taskId));
+
+        assertEquals("Task", task.getTitle());
+        assertEquals("author", task.getAuthor().getUsername());
+        assertEquals(Set.of(Role.ROLE_USER), task.getAuthor().getRoles());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void update_RefreshesCachedTask() {
+        inTransaction(entityManager -> entityManager.find(TaskEntity.class, taskId));
+        runInTransaction(entityManager -> {
+            entityManager.find(TaskEntity.class, taskId).setStatus(TaskStatus.COMPLETED);
+        });
+        statistics.clear();
+
+        TaskEntity task = inTransaction(entityManager -> entityManager.find(TaskEntity.class, taskId));
+
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private void runInTransaction(Consumer<EntityManager> work) {
+        inTransaction(entityManager -> {
+            work.accept(entityManager);
+            return null;
+        });
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            T result = work.apply(entityManager);
+            entityManager.getTransaction().commit();
+            return result;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.persdsr.taskmanagementsystem.security.jwt;
+
+import io.github.persdsr.taskmanagementsystem.security.services.UserDetailsImpl;
+import io.github.persdsr.taskmanagementsystem.security.services.UserDetailsServiceImpl;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AuthTokenFilterTest {
+
+    private static final String SECRET = "iofgjidjgjpecslfonjgfdjbdfghouisrgosgtkvfgglibhsdfgbhsdfhuisdfvbh";
+
+    private JwtUtils jwtUtils;
+
+    private UserDetailsServiceImpl userDetailsService;
+
+    private AuthTokenFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCacheSize", 100L);
+        jwtUtils.init();
+
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "userRecheckInterval", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(filter, "recheckedUsersSize", 100);
+        filter.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_OutdatedTokenAfterCurrentOnePassed_IsStillRejected() throws ServletException, IOException {
+        when(userDetailsService.loadStoredUser("john@mail.ru")).thenReturn(user("ROLE_USER"));
+        String current = token(user("ROLE_USER"));
+        String demoted = token(user("ROLE_ADMIN"));
+
+        assertEquals(200, filter(current).getStatus());
+        assertEquals(401, filter(demoted).getStatus());
+        assertEquals(200, filter(current).getStatus());
+
+        // The current token is only compared with the database once per interval
+        verify(userDetailsService, times(2)).loadStoredUser("john@mail.ru");
+    }
+
+    private MockHttpServletResponse filter(String token) throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private String token(UserDetailsImpl user) {
+        return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static UserDetailsImpl user(String role) {
+        return new UserDetailsImpl(7, "John", "john@mail.ru", null, List.of(new SimpleGrantedAuthority(role)));
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.persdsr.taskmanagementsystem.security.jwt;
+
+import io.github.persdsr.taskmanagementsystem.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    private static final String SECRET = "iofgjidjgjpecslfonjgfdjbdfghouisrgosgtkvfgglibhsdfgbhsdfhuisdfvbh";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "tokenCacheSize", 100L);
+        jwtUtils.init();
+    }
+
+    @Test
+    void getUserDetails_TokenWithClaims_ReturnsPrincipalWithoutDatabase() {
+        UserDetailsImpl user = new UserDetailsImpl(7, "John", "john@mail.ru", "encoded",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        UserDetailsImpl result = jwtUtils.getUserDetails(jwtUtils.parseClaims(token));
+
+        assertEquals(7, result.getId());
+        assertEquals("John", result.getUsername());
+        assertEquals("john@mail.ru", result.getEmail());
+        assertNull(result.getPassword());
+        assertEquals(List.of("ROLE_ADMIN"), result.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void getUserDetails_LegacyToken_ReturnsNull() {
+        String token = legacyToken(SECRET, 60000);
+
+        Claims claims = jwtUtils.parseClaims(token);
+
+        assertNotNull(claims);
+        assertNull(jwtUtils.getUserDetails(claims));
+        assertEquals("john@mail.ru", claims.getSubject());
+    }
+
+    @Test
+    void parseClaims_SameTokenTwice_ServedFromCache() {
+        String token = legacyToken(SECRET, 60000);
+
+        assertSame(jwtUtils.parseClaims(token), jwtUtils.parseClaims(token));
+    }
+
+    @Test
+    void parseClaims_ForeignSignature_ReturnsNull() {
+        String token = legacyToken(SECRET.replace('i', 'x'), 60000);
+
+        assertNull(jwtUtils.parseClaims(token));
+    }
+
+    @Test
+    void parseClaims_ExpiredOrMalformedToken_ReturnsNull() {
+        assertNull(jwtUtils.parseClaims(legacyToken(SECRET, -1000)));
+        assertNull(jwtUtils.parseClaims("not-a-token"));
+    }
+
+    private static String legacyToken(String secret, long lifetimeMs) {
+        return Jwts.builder()
+                .setSubject("john@mail.ru")
+                .setExpiration(new Date(System.currentTimeMillis() + lifetimeMs))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.persdsr.taskmanagementsystem.security.services;
+
+import io.github.persdsr.taskmanagementsystem.config.CacheConfig;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.exception.response.EmailNotFoundException;
+import io.github.persdsr.taskmanagementsystem.model.Role;
+import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+@Import({CacheConfig.class, UserDetailsServiceImpl.class, UserCacheEvictionListener.class,
+        UserCacheEvictionListenerTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserCacheEvictionListenerTest {
+
+    private static final String EMAIL = "john@mail.ru";
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.USERS_CACHE);
+        }
+    }
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int userId;
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        userRepo.deleteAll();
+        userId = userRepo.save(UserEntity.builder()
+                .username("john")
+                .email(EMAIL)
+                .password("Password1234")
+                .roles(new HashSet<>(Set.of(Role.ROLE_USER)))
+                .build()).getId();
+    }
+
+    @Test
+    void roleChange_IsVisibleBeforeCacheExpires() {
+        assertEquals(Set.of("ROLE_USER"), authorities(userDetailsService.loadUserByUsername(EMAIL)));
+
+        transactionTemplate.executeWithoutResult(transaction ->
+                userRepo.findById(userId).orElseThrow().getRoles().add(Role.ROLE_ADMIN));
+
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), authorities(userDetailsService.loadUserByUsername(EMAIL)));
+    }
+
+    @Test
+    void emailChange_EvictsOldAddress() {
+        userDetailsService.loadUserByUsername(EMAIL);
+
+        transactionTemplate.executeWithoutResult(transaction ->
+                userRepo.findById(userId).orElseThrow().setEmail("johnny@mail.ru"));
+
+        assertThrows(EmailNotFoundException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+        assertEquals("john", userDetailsService.loadUserByUsername("johnny@mail.ru").getUsername());
+    }
+
+    @Test
+    void rolledBackChange_KeepsCachedPrincipal() {
+        UserDetails cached = userDetailsService.loadUserByUsername(EMAIL);
+
+        transactionTemplate.executeWithoutResult(transaction -> {
+            userRepo.findById(userId).orElseThrow().getRoles().add(Role.ROLE_ADMIN);
+            userRepo.flush();
+            transaction.setRollbackOnly();
+        });
+
+        assertSame(cached, userDetailsService.loadUserByUsername(EMAIL));
+    }
+
+    private static Set<String> authorities(UserDetails user) {
+        return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.persdsr.taskmanagementsystem.security.services;
+
+import io.github.persdsr.taskmanagementsystem.config.CacheConfig;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.exception.response.EmailNotFoundException;
+import io.github.persdsr.taskmanagementsystem.model.Role;
+import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import io.github.persdsr.taskmanagementsystem.repository.UserRoleRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+public class UserDetailsServiceImplTest {
+
+    private static final String EMAIL = "john@mail.ru";
+
+    @Configuration
+    @Import({CacheConfig.class, UserDetailsServiceImpl.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.USERS_CACHE);
+        }
+    }
+
+    @MockitoBean
+    private UserRepo userRepo;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCache(CacheConfig.USERS_CACHE).clear();
+    }
+
+    @Test
+    void loadUserByUsername_RepeatedCalls_LoadsUserOnce() {
+        when(userRepo.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+
+        UserDetailsImpl first = (UserDetailsImpl) userDetailsService.loadUserByUsername(EMAIL);
+        UserDetailsImpl second = (UserDetailsImpl) userDetailsService.loadUserByUsername(EMAIL);
+
+        assertSame(first, second);
+        verify(userRepo, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void loadUserByUsername_AfterEvict_LoadsUserAgain() {
+        when(userRepo.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+
+        userDetailsService.loadUserByUsername(EMAIL);
+        userDetailsService.evictUser(EMAIL);
+        userDetailsService.loadUserByUsername(EMAIL);
+
+        verify(userRepo, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void loadUserByUsername_UnknownEmail_IsNotCached() {
+        when(userRepo.findByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        assertThrows(EmailNotFoundException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+        assertThrows(EmailNotFoundException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+
+        verify(userRepo, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void loadStoredUser_BypassesCachedPrincipal() {
+        when(userRepo.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+        userDetailsService.loadUserByUsername(EMAIL);
+        List<UserRoleRow> rows = List.of(row(Role.ROLE_USER), row(Role.ROLE_ADMIN));
+        when(userRepo.findRolesByEmail(EMAIL)).thenReturn(rows);
+
+        UserDetailsImpl stored = userDetailsService.loadStoredUser(EMAIL);
+
+        assertEquals(1, stored.getId());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), stored.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet()));
+        verify(userRepo, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void loadStoredUser_UnknownEmail_ThrowsEmailNotFoundException() {
+        when(userRepo.findRolesByEmail(EMAIL)).thenReturn(List.of());
+
+        assertThrows(EmailNotFoundException.class, () -> userDetailsService.loadStoredUser(EMAIL));
+    }
+
+    private static UserRoleRow row(Role role) {
+        UserRoleRow row = mock(UserRoleRow.class);
+        when(row.getId()).thenReturn(1);
+        when(row.getUsername()).thenReturn("John");
+        when(row.getRole()).thenReturn(role);
+        return row;
+    }
+
+    private static UserEntity user() {
+        return UserEntity.builder()
+                .id(1)
+                .username("John")
+                .email(EMAIL)
+                .password("encoded")
+                .roles(Set.of(Role.ROLE_USER))
+                .build();
+    }
+}
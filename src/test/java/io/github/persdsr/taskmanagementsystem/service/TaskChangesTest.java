@@ -0,0 +1,244 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import io.github.persdsr.taskmanagementsystem.entity.CommentEntity;
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.exception.response.SyncCursorExpiredException;
+import io.github.persdsr.taskmanagementsystem.model.Role;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskChangesDTO;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskCommentDTO;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.repository.CommentRepo;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the change feed against a real PostgreSQL with the Flyway schema, since change tracking is done by
+ * triggers and relies on transaction ids. Every write commits, changes of open transactions are not returned.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(TaskSyncService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskChangesTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    @Autowired
+    private TaskRepo taskRepo;
+
+    @Autowired
+    private CommentRepo commentRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate transactionTemplate;
+
+    private UserEntity john;
+
+    /** Cursor of a client that is up to date when the test starts */
+    private String cursor;
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(transaction -> {
+            jdbcTemplate.update("delete from comment");
+            jdbcTemplate.update("delete from task");
+            jdbcTemplate.update("delete from user_roles");
+            jdbcTemplate.update("delete from users");
+        });
+        john = transactionTemplate.execute(transaction -> userRepo.save(UserEntity.builder()
+                .username("john")
+                .email("john@mail.ru")
+                .password("Password1234")
+                .roles(Set.of(Role.ROLE_USER))
+                .build()));
+
+        TaskChangesDTO changes;
+        do {
+            changes = taskSyncService.getChanges(cursor, 1000);
+            cursor = changes.getNextCursor();
+        } while (changes.isHasMore());
+    }
+
+    @Test
+    void getChanges_PagesThroughWritesAndDeletesOnce() {
+        TaskEntity kept = saveTask("Fix bug");
+        TaskEntity renamed = saveTask("Write docs");
+        TaskEntity removed = saveTask("Obsolete");
+        CommentEntity comment = transactionTemplate.execute(transaction -> commentRepo.save(CommentEntity.builder()
+                .text("On it")
+                .author(john)
+                .task(kept)
+                .build()));
+        transactionTemplate.executeWithoutResult(transaction -> {
+            TaskEntity task = taskRepo.findById(renamed.getId()).orElseThrow();
+            task.setTitle("Write better docs");
+        });
+        transactionTemplate.executeWithoutResult(transaction -> taskRepo.deleteById(removed.getId()));
+
+        List<TaskDTO> tasks = new ArrayList<>();
+        List<TaskCommentDTO> comments = new ArrayList<>();
+        List<Integer> deletedTasks = new ArrayList<>();
+        int pages = 0;
+        TaskChangesDTO changes;
+        do {
+            changes = taskSyncService.getChanges(cursor, 2);
+            tasks.addAll(changes.getTasks());
+            comments.addAll(changes.getComments());
+            deletedTasks.addAll(changes.getDeletedTasks());
+            cursor = changes.getNextCursor();
+            pages++;
+        } while (changes.isHasMore());
+
+        assertEquals(2, pages);
+        assertEquals(Set.of(kept.getId(), renamed.getId()), ids(tasks));
+        assertEquals(2, tasks.size(), "Every task comes once with its current state");
+        assertTrue(tasks.stream().anyMatch(task -> task.getTitle().equals("Write better docs")));
+        assertEquals(List.of(comment.getId()), comments.stream().map(TaskCommentDTO::getId).toList());
+        assertEquals(kept.getId(), comments.get(0).getTaskId());
+        assertEquals(List.of(removed.getId()), deletedTasks);
+    }
+
+    @Test
+    void getChanges_NothingChanged_ReturnsEmptyPageAndCursor() {
+        TaskChangesDTO changes = taskSyncService.getChanges(cursor, 10);
+
+        assertTrue(changes.getTasks().isEmpty());
+        assertTrue(changes.getDeletedTasks().isEmpty());
+        assertFalse(changes.isHasMore());
+        assertNotNull(changes.getNextCursor());
+    }
+
+    @Test
+    void getChanges_WaitsForRunningTransactionsInsteadOfSkippingThem() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(transaction -> {
+            TaskEntity task = taskRepo.saveAndFlush(task("Slow"));
+            written.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return task.getId();
+        }));
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        TaskEntity fast = saveTask("Fast");
+
+        TaskChangesDTO whileRunning = taskSyncService.getChanges(cursor, 10);
+        release.countDown();
+        int slowId = slow.get(5, TimeUnit.SECONDS);
+        TaskChangesDTO afterCommit = taskSyncService.getChanges(whileRunning.getNextCursor(), 10);
+
+        assertTrue(whileRunning.getTasks().isEmpty(), "The fast task committed after the slow one started");
+        assertEquals(Set.of(slowId, fast.getId()), ids(afterCommit.getTasks()));
+    }
+
+    @Test
+    void getChanges_CursorOlderThanRetention_ThrowsGone() {
+        String expired = PageCursor.encode(new PageCursor.ChangeKey(1, 1,
+                Instant.now().minus(Duration.ofDays(31)).getEpochSecond()));
+
+        assertThrows(SyncCursorExpiredException.class, () -> taskSyncService.getChanges(expired, 10));
+    }
+
+    @Test
+    void getChanges_PageSizeOutOfBounds_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> taskSyncService.getChanges(cursor, 0));
+        assertThrows(IllegalArgumentException.class, () -> taskSyncService.getChanges(cursor, 1001));
+    }
+
+    @Test
+    void purgeTombstones_DeletesExpiredTombstonesAndKeepsTheEntityCache() {
+        TaskEntity recent = saveTask("Recent");
+        TaskEntity expired = saveTask("Expired");
+        transactionTemplate.executeWithoutResult(transaction -> taskRepo.deleteById(recent.getId()));
+        transactionTemplate.executeWithoutResult(transaction -> taskRepo.deleteById(expired.getId()));
+        jdbcTemplate.update("update tombstone set deleted_at = now() - interval '60 days' where entity_id = ?",
+                expired.getId());
+        transactionTemplate.executeWithoutResult(transaction -> userRepo.findById(john.getId()));
+        Cache cache = entityManagerFactory.getCache();
+        assertTrue(cache.contains(UserEntity.class, john.getId()));
+
+        taskSyncService.purgeTombstones();
+
+        assertEquals(1, tombstones(recent.getId()));
+        assertEquals(0, tombstones(expired.getId()));
+        assertTrue(cache.contains(UserEntity.class, john.getId()), "The purge must not evict cached entities");
+    }
+
+    private int tombstones(int taskId) {
+        return jdbcTemplate.queryForObject("select count(*) from tombstone where entity = 'TASK' and entity_id = ?",
+                Integer.class, taskId);
+    }
+
+    private TaskEntity saveTask(String title) {
+        return transactionTemplate.execute(transaction -> taskRepo.save(task(title)));
+    }
+
+    private TaskEntity task(String title) {
+        return TaskEntity.builder()
+                .title(title)
+                .status(TaskStatus.PENDING)
+                .priority(TaskPriority.MEDIUM)
+                .author(john)
+                .build();
+    }
+
+    private static Set<Integer> ids(List<TaskDTO> tasks) {
+        Set<Integer> ids = new HashSet<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.model.ExportFormat;
+import io.github.persdsr.taskmanagementsystem.model.Role;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "slay.app.export.fetch-size=4"
+})
+@Import(TaskExportService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class TaskExportServiceTest {
+
+    private static final int TASKS = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskExportService taskExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        UserEntity author = entityManager.persist(UserEntity.builder()
+                .username("john")
+                .email("john@mail.ru")
+                .password("Password1234")
+                .roles(Set.of(Role.ROLE_USER))
+                .build());
+
+        for (int i = 0; i < TASKS; i++) {
+            entityManager.persist(TaskEntity.builder()
+                    .title("Task " + i)
+                    .description(i == 0 ? "Quoted \"text\", with comma\nand line break" : null)
+                    .status(i % 2 == 0 ? TaskStatus.PENDING : TaskStatus.COMPLETED)
+                    .priority(TaskPriority.HIGH)
+                    .author(author)
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void exportTasks_Ndjson_WritesOneTaskPerLineWithOneStatement() throws IOException {
+        statistics.clear();
+
+        String export = export(null, EnumSet.allOf(TaskField.class), ExportFormat.NDJSON);
+
+        List<String> lines = export.lines().toList();
+        assertEquals(TASKS, lines.size());
+        assertTrue(export.endsWith("\n"));
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("Task 0", first.get("title").asText());
+        assertEquals("john", first.get("author").asText());
+        assertFalse(first.has("performer"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void exportTasks_Csv_WritesHeaderAndQuotesValues() throws IOException {
+        String export = export(null, EnumSet.of(TaskField.TITLE, TaskField.DESCRIPTION, TaskField.PERFORMER),
+                ExportFormat.CSV);
+
+        assertTrue(export.startsWith("id,title,description,performer\r\n"));
+        assertTrue(export.contains(",Task 0,\"Quoted \"\"text\"\", with comma\nand line break\",\r\n"));
+        assertTrue(export.contains(",Task 1,,\r\n"));
+        assertEquals(TASKS + 1, export.split("\r\n").length);
+    }
+
+    @Test
+    void exportTasks_WithFilter_ExportsMatchingTasksOnly() throws IOException {
+        String export = export(TaskStatus.COMPLETED, EnumSet.of(TaskField.STATUS), ExportFormat.NDJSON);
+
+        List<String> lines = export.lines().toList();
+        assertEquals(TASKS / 2, lines.size());
+        lines.forEach(line -> assertTrue(line.contains("\"status\":\"COMPLETED\"")));
+    }
+
+    private String export(TaskStatus status, Set<TaskField> fields, ExportFormat format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        taskExportService.exportTasks(null, null, status, null, fields, format).writeTo(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.model.Role;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskImportReport;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskCommentedEvent;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "slay.app.import.chunk-size=2",
+        "slay.app.import.max-errors=2",
+        "slay.app.import.max-line-length=200"
+})
+@Import(TaskImportService.class)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@RecordApplicationEvents
+public class TaskImportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskImportService taskImportService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        persistUser("admin");
+        persistUser("john");
+        persistUser("alex");
+        entityManager.flush();
+        entityManager.clear();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void importTasks_ValidLines_SavesTasksWithComments() throws IOException {
+        TaskImportReport report = importTasks("""
+                {"title": "Fix bug", "status": "IN_PROGRESS", "priority": "HIGH", "author": "john", "performer": "alex", "comments": [{"text": "On it", "author": "alex"}, {"text": "Thanks"}]}
+
+                {"title": "Update documentation"}
+                """);
+
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getFailed());
+
+        List<TaskEntity> tasks = tasks();
+        assertEquals(2, tasks.size());
+        TaskEntity fixBug = tasks.get(0);
+        assertEquals(TaskStatus.IN_PROGRESS, fixBug.getStatus());
+        assertEquals(TaskPriority.HIGH, fixBug.getPriority());
+        assertEquals("john", fixBug.getAuthor().getUsername());
+        assertEquals("alex", fixBug.getPerformer().getUsername());
+        assertEquals(List.of("alex", "john"), fixBug.getComments().stream()
+                .map(comment -> comment.getAuthor().getUsername())
+                .sorted()
+                .toList());
+
+        TaskEntity documentation = tasks.get(1);
+        assertEquals("admin", documentation.getAuthor().getUsername());
+        assertEquals(TaskStatus.PENDING, documentation.getStatus());
+        assertEquals(TaskPriority.LOW, documentation.getPriority());
+        assertNull(documentation.getPerformer());
+
+        assertEquals(List.of("alex", "john"), events.stream(TaskCommentedEvent.class)
+                .peek(event -> assertEquals(fixBug.getId(), event.taskId()))
+                .map(TaskCommentedEvent::author)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void importTasks_LineTooLong_ReportsItAndImportsTheRest() throws IOException {
+        TaskImportReport report = importTasks("{\"title\": \"First\"}\r\n"
+                + "{\"title\": \"" + "x".repeat(300) + "\"}\r\n"
+                + "{\"title\": \"Last\"}");
+
+        assertEquals(2, report.getImported());
+        assertEquals(List.of(new TaskImportReport.LineError(2, "Line longer than 200 characters")), report.getErrors());
+        assertEquals(List.of("First", "Last"), tasks().stream().map(TaskEntity::getTitle).toList());
+    }
+
+    @Test
+    void importTasks_InvalidLines_ReportsThemAndImportsTheRest() throws IOException {
+        TaskImportReport report = importTasks("""
+                {"title": "First"}
+                {"title": "Broken"
+                {"title": ""}
+                {"title": "Unknown performer", "performer": "nobody"}
+                {"title": "Last"}
+                """);
+
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(2, report.getErrors().size());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+        assertEquals(new TaskImportReport.LineError(3, "title: Title is required"), report.getErrors().get(1));
+        assertEquals(List.of("First", "Last"), tasks().stream().map(TaskEntity::getTitle).toList());
+    }
+
+    @Test
+    void importTasks_RepeatedUsernames_AreLookedUpOnce() throws IOException {
+        String lines = IntStream.range(0, 7)
+                .mapToObj(i -> "{\"title\": \"Task " + i + "\", \"author\": \"john\", \"performer\": \"alex\"}")
+                .collect(Collectors.joining("\n"));
+        statistics.clear();
+
+        TaskImportReport report = importTasks(lines);
+
+        assertEquals(7, report.getImported());
+        // admin, john and alex, no matter how many lines name them
+        assertEquals(3, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    void importTasks_UnknownImporter_ThrowsIllegalArgumentException() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("removed", null, List.of()));
+
+        assertThrows(IllegalArgumentException.class, () -> importTasks("{\"title\": \"First\"}"));
+        assertTrue(tasks().isEmpty());
+    }
+
+    private TaskImportReport importTasks(String lines) throws IOException {
+        return taskImportService.importTasks(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<TaskEntity> tasks() {
+        entityManager.clear();
+        return entityManager.getEntityManager()
+                .createQuery("select t from task t order by t.id", TaskEntity.class)
+                .getResultList();
+    }
+
+    private void persistUser(String username) {
+        entityManager.persist(UserEntity.builder()
+                .username(username)
+                .email(username + "@mail.ru")
+                .password("Password1234")
+                .roles(Set.of(Role.ROLE_USER))
+                .build());
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.exception.response.UserNotFoundException;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskPatcherTest {
+
+    @Mock
+    private UserRepo userRepo;
+
+    private TaskPatcher taskPatcher;
+
+    @BeforeEach
+    public void setUp() {
+        taskPatcher = new TaskPatcher(userRepo);
+    }
+
+    @Test
+    void compile_KnownFields_AppliesConvertedValues() {
+        UserEntity performer = new UserEntity();
+        performer.setUsername("John");
+        when(userRepo.findByUsername("John")).thenReturn(Optional.of(performer));
+
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("title", "New title");
+        changes.put("description", null);
+        changes.put("status", "COMPLETED");
+        changes.put("priority", "HIGH");
+        changes.put("performer", "John");
+
+        TaskEntity task = TaskEntity.builder().title("Old title").description("Old description").build();
+        taskPatcher.compile(changes).accept(task);
+
+        assertEquals("New title", task.getTitle());
+        assertNull(task.getDescription());
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals(TaskPriority.HIGH, task.getPriority());
+        assertSame(performer, task.getPerformer());
+    }
+
+    @Test
+    void compile_FieldOutsideAllowList_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> taskPatcher.compile(Map.of("id", 5)));
+        assertThrows(IllegalArgumentException.class, () -> taskPatcher.compile(Map.of("comments", "[]")));
+    }
+
+    @Test
+    void compile_InvalidValues_ThrowsBeforeTaskIsTouched() {
+        Map<String, Object> nullTitle = new HashMap<>();
+        nullTitle.put("title", null);
+
+        assertThrows(IllegalArgumentException.class, () -> taskPatcher.compile(Map.of("status", "DONE")));
+        assertThrows(IllegalArgumentException.class, () -> taskPatcher.compile(Map.of("title", 42)));
+        assertThrows(IllegalArgumentException.class, () -> taskPatcher.compile(nullTitle));
+    }
+
+    @Test
+    void compile_UnknownPerformer_ThrowsUserNotFoundException() {
+        when(userRepo.findByUsername("Ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> taskPatcher.compile(Map.of("performer", "Ghost")));
+    }
+
+    @Test
+    void compile_NullPerformer_UnassignsTask() {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("performer", null);
+        TaskEntity task = TaskEntity.builder().performer(new UserEntity()).build();
+
+        Consumer<TaskEntity> patch = taskPatcher.compile(changes);
+        patch.accept(task);
+
+        assertNull(task.getPerformer());
+        verifyNoInteractions(userRepo);
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.model.Role;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.CursorPage;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.service.search.DatabaseTaskSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs full-text search against a real PostgreSQL with the Flyway schema, since the tsvector column
+ * and its GIN index only exist there. Skipped when Docker is not available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({TaskService.class, TaskPatcher.class, DatabaseTaskSearchIndex.class})
+public class TaskSearchTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final Set<TaskField> ALL_FIELDS = EnumSet.allOf(TaskField.class);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    private UserEntity john;
+
+    private UserEntity alex;
+
+    @BeforeEach
+    public void setUp() {
+        john = persistUser("john");
+        alex = persistUser("alex");
+
+        persistTask("Update documentation", "Describe the authentication flow", TaskStatus.PENDING, alex);
+        persistTask("Fix bug in authentication", "Fix the bug in the login endpoint", TaskStatus.IN_PROGRESS, alex);
+        persistTask("Release", "Ship the authentication fix", TaskStatus.COMPLETED, john);
+        persistTask("Refactor billing", "Nothing to see here", TaskStatus.IN_PROGRESS, alex);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void searchTasks_RanksTitleMatchesFirst() {
+        CursorPage<TaskDTO> page = taskService.searchTasks("authentication", null, null, null, null, null, 10, ALL_FIELDS);
+
+        List<TaskDTO> tasks = page.getItems();
+        assertEquals(3, tasks.size());
+        assertEquals("Fix bug in authentication", tasks.get(0).getTitle());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void searchTasks_CombinesWithFilters() {
+        CursorPage<TaskDTO> page = taskService.searchTasks("authentication", null, "alex", TaskStatus.PENDING, null,
+                null, 10, ALL_FIELDS);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals("Update documentation", page.getItems().get(0).getTitle());
+    }
+
+    @Test
+    void searchTasks_SupportsWebSearchSyntax() {
+        CursorPage<TaskDTO> page = taskService.searchTasks("\"login endpoint\" -documentation", null, null, null, null,
+                null, 10, ALL_FIELDS);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals("Fix bug in authentication", page.getItems().get(0).getTitle());
+    }
+
+    @Test
+    void searchTasks_PagesWithCursorWithoutGapsOrDuplicates() {
+        CursorPage<TaskDTO> all = taskService.searchTasks("authentication", null, null, null, null, null, 10, ALL_FIELDS);
+
+        List<TaskDTO> paged = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<TaskDTO> page = taskService.searchTasks("authentication", null, null, null, null, after, 1, ALL_FIELDS);
+            paged.addAll(page.getItems());
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertEquals(all.getItems().stream().map(TaskDTO::getId).toList(), paged.stream().map(TaskDTO::getId).toList());
+    }
+
+    @Test
+    void searchTasks_SeesUpdatedDescription() {
+        TaskEntity task = entityManager.getEntityManager()
+                .createQuery("select t from task t where t.title = 'Refactor billing'", TaskEntity.class)
+                .getSingleResult();
+        task.setDescription("Move invoices to the new authentication service");
+        entityManager.flush();
+        entityManager.clear();
+
+        CursorPage<TaskDTO> page = taskService.searchTasks("invoices", null, null, null, null, null, 10, ALL_FIELDS);
+
+        assertEquals(List.of(task.getId()), page.getItems().stream().map(TaskDTO::getId).toList());
+    }
+
+    private void persistTask(String title, String description, TaskStatus status, UserEntity performer) {
+        entityManager.persist(TaskEntity.builder()
+                .title(title)
+                .description(description)
+                .status(status)
+                .priority(TaskPriority.MEDIUM)
+                .author(john)
+                .performer(performer)
+                .build());
+    }
+
+    private UserEntity persistUser(String username) {
+        return entityManager.persist(UserEntity.builder()
+                .username(username)
+                .email(username + "@mail.ru")
+                .password("Password1234")
+                .roles(Set.of(Role.ROLE_USER))
+                .build());
+    }
+}
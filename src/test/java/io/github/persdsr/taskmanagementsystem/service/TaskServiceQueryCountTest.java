@@ -0,0 +1,332 @@
+package io.github.persdsr.taskmanagementsystem.service;
+
+import io.github.persdsr.taskmanagementsystem.entity.CommentEntity;
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
+import io.github.persdsr.taskmanagementsystem.exception.response.PreconditionFailedException;
+import io.github.persdsr.taskmanagementsystem.exception.response.TooManyTasksException;
+import io.github.persdsr.taskmanagementsystem.model.Role;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.CursorPage;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskRequestDTO;
+import io.github.persdsr.taskmanagementsystem.model.dto.user.CommentDTO;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskBatchUpdateRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskChangesRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskFilterRequest;
+import io.github.persdsr.taskmanagementsystem.service.search.DatabaseTaskSearchIndex;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "slay.app.update.max-tasks=" + TaskServiceQueryCountTest.MAX_UPDATED_TASKS
+})
+@Import({TaskService.class, TaskPatcher.class, DatabaseTaskSearchIndex.class})
+public class TaskServiceQueryCountTest {
+
+    private static final int TASKS = 12;
+
+    static final int MAX_UPDATED_TASKS = TASKS - 1;
+
+    private static final Set<TaskField> ALL_FIELDS = EnumSet.allOf(TaskField.class);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    private Statistics statistics;
+
+    private int firstTaskId;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        for (int i = 0; i < TASKS; i++) {
+            UserEntity author = persistUser("author" + i);
+            UserEntity performer = persistUser("performer" + i);
+            UserEntity commenter = persistUser("commenter" + i);
+
+            TaskEntity task = entityManager.persist(TaskEntity.builder()
+                    .title("Task " + i)
+                    .description("Description " + i)
+                    .status(TaskStatus.IN_PROGRESS)
+                    .priority(TaskPriority.HIGH)
+                    .author(author)
+                    .performer(performer)
+                    .build());
+            if (i == 0) {
+                firstTaskId = task.getId();
+            }
+
+            for (int j = 0; j < 3; j++) {
+                entityManager.persist(CommentEntity.builder()
+                        .text("Comment " + j)
+                        .author(j % 2 == 0 ? commenter : performer)
+                        .task(task)
+                        .build());
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getTasks_StatementCountDoesNotDependOnPageSize() {
+        long smallPage = countStatements(() -> taskService.getTasks(null, null, null, null, 0, 2, ALL_FIELDS, false), 2);
+        long largePage = countStatements(() -> taskService.getTasks(null, null, null, null, 0, TASKS, ALL_FIELDS, false), TASKS);
+
+        assertEquals(smallPage, largePage);
+        assertEquals(1, largePage);
+    }
+
+    @Test
+    void getTasksAfter_StatementCountDoesNotDependOnPageSize() {
+        long smallPage = countStatements(() -> taskService.getTasksAfter(null, null, null, null, "", 2, ALL_FIELDS, false).getItems(), 2);
+        long largePage = countStatements(() -> taskService.getTasksAfter(null, null, null, null, "", TASKS, ALL_FIELDS, false).getItems(), TASKS);
+
+        assertEquals(smallPage, largePage);
+        assertEquals(1, largePage);
+    }
+
+    @Test
+    void getTasks_IncludeComments_LoadsCommentsWithOneExtraStatement() {
+        statistics.clear();
+
+        List<TaskDTO> tasks = taskService.getTasks(null, null, null, null, 0, TASKS, ALL_FIELDS, true);
+
+        assertEquals(TASKS, tasks.size());
+        tasks.forEach(task -> {
+            assertEquals(3, task.getComments().size());
+            task.getComments().forEach(comment -> assertNotNull(comment.getAuthor()));
+        });
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTaskById_SparseFields_ReturnsOnlyRequestedFields() {
+        statistics.clear();
+
+        TaskDTO task = taskService.getTaskById(firstTaskId, EnumSet.of(TaskField.TITLE, TaskField.PERFORMER), false);
+
+        assertEquals(firstTaskId, task.getId());
+        assertEquals("Task 0", task.getTitle());
+        assertEquals("performer0", task.getPerformer());
+        assertNull(task.getAuthor());
+        assertNull(task.getStatus());
+        assertNull(task.getComments());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTaskById_IncludeComments_LoadsTaskWithFixedStatementCount() {
+        statistics.clear();
+
+        TaskDTO task = taskService.getTaskById(firstTaskId, ALL_FIELDS, true);
+
+        assertEquals("Task 0", task.getTitle());
+        assertEquals("performer0", task.getPerformer());
+        assertEquals(3, task.getComments().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getComments_PagesThroughCommentsWithOneStatementPerPage() {
+        statistics.clear();
+
+        CursorPage<CommentDTO> first = taskService.getComments(firstTaskId, null, 2);
+        CursorPage<CommentDTO> second = taskService.getComments(firstTaskId, first.getNextCursor(), 2);
+
+        assertEquals(List.of("Comment 0", "Comment 1"), first.getItems().stream().map(CommentDTO::getText).toList());
+        assertEquals(List.of("Comment 2"), second.getItems().stream().map(CommentDTO::getText).toList());
+        assertEquals("commenter0", first.getItems().get(0).getAuthor());
+        assertNull(second.getNextCursor());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void isTaskPerformer_ChecksPerformerWithOneStatement() {
+        statistics.clear();
+
+        assertTrue(taskService.isTaskPerformer(firstTaskId, "performer0"));
+        assertFalse(taskService.isTaskPerformer(firstTaskId, "author0"));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void addTasks_WritesTasksInJdbcBatches() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("author0", null, List.of()));
+        List<TaskRequestDTO> requests = IntStream.range(0, 120)
+                .mapToObj(i -> {
+                    TaskRequestDTO request = new TaskRequestDTO();
+                    request.setTitle("Imported " + i);
+                    return request;
+                })
+                .toList();
+        statistics.clear();
+
+        try {
+            List<Integer> ids = taskService.addTasks(requests);
+
+            assertEquals(120, ids.stream().distinct().count());
+            assertEquals(120, statistics.getEntityInsertCount());
+            // author with roles, three batches of at most 50 rows and at most three pooled sequence calls
+            assertTrue(statistics.getPrepareStatementCount() <= 8, "statements: " + statistics.getPrepareStatementCount());
+            assertEquals("Imported 119", entityManager.find(TaskEntity.class, ids.get(119)).getTitle());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void updateTasks_ByFilter_LocksReadsAndUpdatesMatchingTasksWithThreeStatements() {
+        TaskBatchUpdateRequest request = new TaskBatchUpdateRequest();
+        TaskFilterRequest filter = new TaskFilterRequest();
+        filter.setPerformer("performer3");
+        request.setFilter(filter);
+        TaskChangesRequest changes = new TaskChangesRequest();
+        changes.setStatus(TaskStatus.COMPLETED);
+        changes.setPriority(TaskPriority.LOW);
+        request.setChanges(changes);
+        statistics.clear();
+
+        assertEquals(1, taskService.updateTasks(request));
+        // ids locked, previous state read and UPDATE, one statement each
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        List<TaskDTO> completed = taskService.getTasks(null, null, TaskStatus.COMPLETED, TaskPriority.LOW, 0, TASKS, ALL_FIELDS, false);
+        assertEquals(List.of("Task 3"), completed.stream().map(TaskDTO::getTitle).toList());
+    }
+
+    @Test
+    void updateTasks_MoreTasksThanAllowed_ThrowsTooManyTasksExceptionWithoutUpdating() {
+        TaskBatchUpdateRequest request = new TaskBatchUpdateRequest();
+        request.setFilter(new TaskFilterRequest());
+        TaskChangesRequest changes = new TaskChangesRequest();
+        changes.setStatus(TaskStatus.COMPLETED);
+        request.setChanges(changes);
+        statistics.clear();
+
+        assertThrows(TooManyTasksException.class, () -> taskService.updateTasks(request));
+        // only the lock query ran, it stops one task past the limit
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(taskService.getTasks(null, null, TaskStatus.COMPLETED, null, 0, TASKS, ALL_FIELDS, false).isEmpty());
+    }
+
+    @Test
+    void updateTasks_ByIds_ReassignsPerformer() {
+        TaskBatchUpdateRequest request = new TaskBatchUpdateRequest();
+        request.setIds(List.of(firstTaskId, firstTaskId + 1, -1));
+        TaskChangesRequest changes = new TaskChangesRequest();
+        changes.setPerformer("author5");
+        request.setChanges(changes);
+
+        assertEquals(2, taskService.updateTasks(request));
+
+        List<TaskDTO> reassigned = taskService.getTasks(null, "author5", null, null, 0, TASKS, ALL_FIELDS, false);
+        assertEquals(List.of(firstTaskId, firstTaskId + 1), reassigned.stream().map(TaskDTO::getId).toList());
+    }
+
+    @Test
+    void updateTask_WritesOnlyChangedColumns() {
+        statistics.clear();
+
+        taskService.updateTask(Map.of("status", "COMPLETED"), firstTaskId, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, statistics.getEntityUpdateCount());
+        TaskEntity task = entityManager.find(TaskEntity.class, firstTaskId);
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals("Task 0", task.getTitle());
+    }
+
+    @Test
+    void updateTask_VersionChecks() {
+        long version = taskService.getTaskVersion(firstTaskId);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.updateTask(Map.of("title", "Stale"), firstTaskId, Set.of(version + 1)));
+
+        taskService.updateTask(Map.of("title", "Fresh"), firstTaskId, Set.of(version));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        assertEquals(version + 1, taskService.getTaskVersion(firstTaskId));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(version + 1, taskService.getTaskById(firstTaskId, Set.of(TaskField.TITLE), false).getVersion());
+    }
+
+    @Test
+    void updateTasks_BumpsVersionOfUpdatedTasks() {
+        long version = taskService.getTaskVersion(firstTaskId);
+        TaskBatchUpdateRequest request = new TaskBatchUpdateRequest();
+        request.setIds(List.of(firstTaskId));
+        TaskChangesRequest changes = new TaskChangesRequest();
+        changes.setPriority(TaskPriority.MEDIUM);
+        request.setChanges(changes);
+
+        taskService.updateTasks(request);
+
+        assertEquals(version + 1, taskService.getTaskVersion(firstTaskId));
+    }
+
+    private long countStatements(Supplier<List<TaskDTO>> read, int expectedSize) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<TaskDTO> tasks = read.get();
+
+        assertEquals(expectedSize, tasks.size());
+        tasks.forEach(task -> {
+            assertNotNull(task.getAuthor());
+            assertNotNull(task.getPerformer());
+            assertNull(task.getComments());
+        });
+        // list views are projected straight into DTOs without hydrating entities
+        assertEquals(0, statistics.getEntityLoadCount());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UserEntity persistUser(String username) {
+        return entityManager.persist(UserEntity.builder()
+                .username(username)
+                .email(username + "@mail.ru")
+                .password("Password1234")
+                .roles(Set.of(Role.ROLE_USER))
+                .build());
+    }
+}
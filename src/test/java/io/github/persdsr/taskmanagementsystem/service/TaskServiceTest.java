@@ -1,30 +1,50 @@
 package io.github.persdsr.taskmanagementsystem.service;
 
+import io.github.persdsr.taskmanagementsystem.entity.CommentEntity;
 import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
 import io.github.persdsr.taskmanagementsystem.entity.UserEntity;
 import io.github.persdsr.taskmanagementsystem.exception.response.TaskNotFoundException;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
 import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
 import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.CursorPage;
 import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.model.dto.user.CommentDTO;
 import io.github.persdsr.taskmanagementsystem.model.request.CommentRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskBatchUpdateRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskChangesRequest;
+import io.github.persdsr.taskmanagementsystem.model.request.TaskFilterRequest;
+import io.github.persdsr.taskmanagementsystem.repository.CommentRepo;
 import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.repository.TaskState;
 import io.github.persdsr.taskmanagementsystem.repository.UserRepo;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskCommentedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskSnapshot;
+import io.github.persdsr.taskmanagementsystem.service.search.TaskSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,12 +59,23 @@ public class TaskServiceTest {
     @Mock
     UserRepo userRepo;
 
+    @Mock
+    CommentRepo commentRepo;
+
+    @Mock
+    TaskSearchIndex taskSearchIndex;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     TaskService taskService;
 
     @Mock
     private Authentication authentication;
 
+    private static final Set<TaskField> ALL_FIELDS = EnumSet.allOf(TaskField.class);
+
     List<TaskEntity> tasks = new ArrayList<>();
 
     @BeforeEach()
@@ -90,22 +121,45 @@ public class TaskServiceTest {
                 .author(new UserEntity())
                 .build();
 
+        when(taskRepo.findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), eq(1)))
+                .thenReturn(views(List.of(taskEntity)));
 
-        when(taskRepo.findById(1)).thenReturn(Optional.of(taskEntity));
-
-        TaskDTO result = taskService.getTaskById(1);
+        TaskDTO result = taskService.getTaskById(1, ALL_FIELDS, false);
 
         assertEquals("Title", result.getTitle());
-        verify(taskRepo, times(1)).findById(1);
+        assertNull(result.getComments());
+        verify(taskRepo, times(1)).findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), eq(1));
+        verifyNoInteractions(commentRepo);
+    }
 
+    @Test
+    void testGetTaskById_IncludeComments_EmbedsComments() {
+        TaskEntity taskEntity = tasks.get(0);
+        CommentEntity comment = CommentEntity.builder()
+                .id(10L)
+                .text("Comment")
+                .task(taskEntity)
+                .author(UserEntity.builder().username("Alex").build())
+                .build();
+        Set<TaskField> fields = EnumSet.of(TaskField.TITLE, TaskField.STATUS);
+
+        when(taskRepo.findTaskViews(any(Specification.class), eq(fields), eq(0L), eq(1)))
+                .thenReturn(views(List.of(taskEntity)));
+        when(commentRepo.findAllByTaskIdInOrderByIdAsc(List.of(1))).thenReturn(List.of(comment));
+
+        TaskDTO result = taskService.getTaskById(1, fields, true);
+
+        assertEquals(1, result.getComments().size());
+        assertEquals("Comment", result.getComments().get(0).getText());
+        assertEquals("Alex", result.getComments().get(0).getAuthor());
     }
 
     @Test
     void testGetTaskById_TaskNotFound_ThrowsTaskNotFoundException() {
-        when(taskRepo.findById(1)).thenReturn(Optional.empty());
+        when(taskRepo.findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), eq(1))).thenReturn(List.of());
 
-        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskById(1));
-        verify(taskRepo, times(1)).findById(1);
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskById(1, ALL_FIELDS, false));
+        verify(taskRepo, times(1)).findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), eq(1));
     }
 
 
@@ -118,11 +172,10 @@ public class TaskServiceTest {
         String author = "John";
         String performer = "Alex";
 
-        Page<TaskEntity> taskPage = new PageImpl<>(tasks);
+        when(taskRepo.findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), eq(pageSize))).thenReturn(views(tasks));
 
-        when(taskRepo.findAll(any(Specification.class), eq(PageRequest.of(pageNumber, pageSize)))).thenReturn(taskPage);
-
-        List<TaskDTO> result = taskService.getTasks(author, performer, status, priority, pageNumber, pageSize);
+        List<TaskDTO> result = taskService.getTasks(author, performer, status, priority, pageNumber, pageSize,
+                ALL_FIELDS, false);
 
         assertNotNull(result);
         assertEquals(2, result.size());
@@ -134,9 +187,81 @@ public class TaskServiceTest {
         assertEquals("HIGH", firstTask.getPriority());
         assertEquals("John", firstTask.getAuthor());
         assertEquals("Alex", firstTask.getPerformer());
+        assertNull(firstTask.getComments());
 
         verify(taskRepo, times(1))
-                .findAll(any(Specification.class), eq(PageRequest.of(pageNumber, pageSize)));
+                .findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), eq(pageSize));
+        verify(taskRepo, never()).findAll(any(Specification.class), any(PageRequest.class));
+    }
+
+    @Test
+    void getTasksAfter_MoreRowsThanPageSize_ReturnsPageWithNextCursor() {
+        TaskEntity task3 = TaskEntity.builder()
+                .id(3)
+                .title("Task 3 title")
+                .status(TaskStatus.PENDING)
+                .priority(TaskPriority.LOW)
+                .comments(List.of())
+                .author(UserEntity.builder().username("John").build())
+                .build();
+        List<TaskEntity> rows = new ArrayList<>(tasks);
+        rows.add(task3);
+
+        when(taskRepo.findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), eq(3))).thenReturn(views(rows));
+
+        CursorPage<TaskDTO> result = taskService.getTasksAfter(null, null, null, null, "", 2, ALL_FIELDS, false);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals("Task 2 title", result.getItems().get(1).getTitle());
+        assertEquals(2, PageCursor.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void getTasksAfter_LastPage_ReturnsNoNextCursor() {
+        when(taskRepo.findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), eq(6))).thenReturn(views(tasks));
+
+        CursorPage<TaskDTO> result = taskService.getTasksAfter("John", null, null, null, PageCursor.encode(0), 5, ALL_FIELDS, false);
+
+        assertEquals(2, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getTasksAfter_MalformedCursor_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.getTasksAfter(null, null, null, null, "not-a-cursor", 5, ALL_FIELDS, false));
+        verify(taskRepo, never()).findTaskViews(any(Specification.class), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getTasksAfter_CursorBeyondIdRange_ThrowsIllegalArgumentException() {
+        String forged = PageCursor.encode(Integer.MAX_VALUE + 2L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.getTasksAfter(null, null, null, null, forged, 5, ALL_FIELDS, false));
+        verify(taskRepo, never()).findTaskViews(any(Specification.class), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getComments_TaskNotFound_ThrowsTaskNotFoundException() {
+        when(commentRepo.findPageByTaskId(1, 0, Limit.of(21))).thenReturn(List.of());
+        when(taskRepo.existsById(1)).thenReturn(false);
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.getComments(1, null, 20));
+    }
+
+    @Test
+    void getComments_MoreRowsThanPageSize_ReturnsNextCursor() {
+        when(commentRepo.findPageByTaskId(1, 5, Limit.of(3))).thenReturn(List.of(
+                new CommentDTO(6L, "First", "John"),
+                new CommentDTO(9L, "Second", "Alex"),
+                new CommentDTO(12L, "Third", "John")));
+
+        CursorPage<CommentDTO> result = taskService.getComments(1, PageCursor.encode(5), 2);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(9, PageCursor.decode(result.getNextCursor()));
+        verify(taskRepo, never()).existsById(any());
     }
 
     @Test
@@ -147,10 +272,11 @@ public class TaskServiceTest {
 
         when(taskRepo.findById(taskId)).thenReturn(Optional.of(task));
 
-        taskService.deleteTask(taskId);
+        taskService.deleteTask(taskId, null);
 
         verify(taskRepo, times(1)).findById(taskId);
         verify(taskRepo, times(1)).delete(task);
+        verify(eventPublisher, times(1)).publishEvent(TaskChangedEvent.deleted(task));
     }
 
     @Test
@@ -158,9 +284,10 @@ public class TaskServiceTest {
         int taskId = 1;
         when(taskRepo.findById(taskId)).thenReturn(Optional.empty());
 
-        assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(taskId));
+        assertThrows(TaskNotFoundException.class, () -> taskService.deleteTask(taskId, null));
         verify(taskRepo, times(1)).findById(taskId);
         verify(taskRepo, never()).deleteById(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -170,14 +297,14 @@ public class TaskServiceTest {
         CommentRequest commentRequest = new CommentRequest();
         commentRequest.setText("Test comment");
 
-        TaskEntity task = new TaskEntity();
-        task.setId(taskId);
-        task.setPerformer(new UserEntity());
+        TaskEntity taskReference = new TaskEntity();
+        taskReference.setId(taskId);
 
         UserEntity author = new UserEntity();
         author.setUsername(username);
 
-        when(taskRepo.findById(taskId)).thenReturn(Optional.of(task));
+        when(taskRepo.existsById(taskId)).thenReturn(true);
+        when(taskRepo.getReferenceById(taskId)).thenReturn(taskReference);
         when(authentication.getName()).thenReturn(username);
         when(userRepo.findByUsername(username)).thenReturn(Optional.of(author));
 
@@ -185,13 +312,16 @@ public class TaskServiceTest {
 
         taskService.addCommentToTask(taskId, commentRequest);
 
-        verify(taskRepo, times(1)).findById(taskId);
+        ArgumentCaptor<CommentEntity> comment = ArgumentCaptor.forClass(CommentEntity.class);
+        verify(commentRepo, times(1)).saveAndFlush(comment.capture());
         verify(userRepo, times(1)).findByUsername(username);
-        verify(taskRepo, times(1)).save(task);
+        verify(taskRepo, never()).findById(any());
+        verify(taskRepo, never()).save(any());
 
-        assertEquals(1, task.getComments().size());
-        assertEquals("Test comment", task.getComments().get(0).getText());
-        assertEquals(username, task.getComments().get(0).getAuthor().getUsername());
+        assertEquals("Test comment", comment.getValue().getText());
+        assertEquals(username, comment.getValue().getAuthor().getUsername());
+        assertSame(taskReference, comment.getValue().getTask());
+        verify(eventPublisher, times(1)).publishEvent(new TaskCommentedEvent(taskId, null, username));
     }
 
     @Test
@@ -200,11 +330,112 @@ public class TaskServiceTest {
         CommentRequest commentRequest = new CommentRequest();
         commentRequest.setText("Test comment");
 
-        when(taskRepo.findById(taskId)).thenReturn(Optional.empty());
+        when(taskRepo.existsById(taskId)).thenReturn(false);
 
         assertThrows(TaskNotFoundException.class, () -> taskService.addCommentToTask(taskId, commentRequest));
-        verify(taskRepo, times(1)).findById(taskId);
-        verify(taskRepo, never()).save(any());
+        verify(taskRepo, times(1)).existsById(taskId);
+        verify(commentRepo, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void addCommentToTask_TaskDeletedAfterTheCheck_ThrowsTaskNotFoundException() {
+        int taskId = 1;
+        String username = "John";
+        CommentRequest commentRequest = new CommentRequest();
+        commentRequest.setText("Test comment");
+
+        when(taskRepo.existsById(taskId)).thenReturn(true);
+        when(authentication.getName()).thenReturn(username);
+        when(userRepo.findByUsername(username)).thenReturn(Optional.of(new UserEntity()));
+        when(commentRepo.saveAndFlush(any(CommentEntity.class)))
+                .thenThrow(new DataIntegrityViolationException("fk_comment_task"));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.addCommentToTask(taskId, commentRequest));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void isTaskPerformer_TaskNotFound_ThrowsTaskNotFoundException() {
+        when(taskRepo.isPerformedBy(1, "Alex")).thenReturn(Optional.empty());
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.isTaskPerformer(1, "Alex"));
+        verify(taskRepo, never()).findById(any());
+    }
+
+    @Test
+    void isTaskAuthor_ReturnsRepositoryAnswer() {
+        when(taskRepo.isAuthoredBy(1, "John")).thenReturn(Optional.of(true));
+        when(taskRepo.isAuthoredBy(1, "Alex")).thenReturn(Optional.of(false));
+
+        assertTrue(taskService.isTaskAuthor(1, "John"));
+        assertFalse(taskService.isTaskAuthor(1, "Alex"));
+        verify(taskRepo, never()).findById(any());
     }
 
+    @Test
+    void addCommentToTask_PermissionCheckedInSameRequest_ReusesLookup() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            CommentRequest commentRequest = new CommentRequest();
+            commentRequest.setText("Test comment");
+
+            when(taskRepo.isPerformedBy(1, "Alex")).thenReturn(Optional.of(true));
+            when(taskRepo.getReferenceById(1)).thenReturn(new TaskEntity());
+            when(authentication.getName()).thenReturn("Alex");
+            when(userRepo.findByUsername("Alex")).thenReturn(Optional.of(UserEntity.builder().username("Alex").build()));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+
+            assertTrue(taskService.isTaskPerformer(1, "Alex"));
+            assertTrue(taskService.isTaskPerformer(1, "Alex"));
+            taskService.addCommentToTask(1, commentRequest);
+
+            verify(taskRepo, times(1)).isPerformedBy(1, "Alex");
+            verify(taskRepo, never()).existsById(any());
+            verify(commentRepo, times(1)).saveAndFlush(any(CommentEntity.class));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private List<TaskDTO> views(List<TaskEntity> entities) {
+        return entities.stream()
+                .map(task -> {
+                    TaskDTO view = TaskDTO.toModel(task);
+                    view.setComments(null);
+                    return view;
+                })
+                .toList();
+    }
+
+    @Test
+    void updateTasks_IdsAndFilterTogether_ThrowsIllegalArgumentException() {
+        TaskBatchUpdateRequest request = new TaskBatchUpdateRequest();
+        request.setIds(List.of(1));
+        request.setFilter(new TaskFilterRequest());
+        TaskChangesRequest changes = new TaskChangesRequest();
+        changes.setStatus(TaskStatus.COMPLETED);
+        request.setChanges(changes);
+
+        assertThrows(IllegalArgumentException.class, () -> taskService.updateTasks(request));
+        verify(taskRepo, never()).updateTasks(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateTasks_PublishesOneChangedEventPerTask() {
+        TaskState state = new TaskState(7, "Fix bug", null, TaskStatus.PENDING, TaskPriority.HIGH, 1, "John", 2, "Alex");
+        TaskBatchUpdateRequest request = new TaskBatchUpdateRequest();
+        request.setIds(List.of(7, 8));
+        TaskChangesRequest changes = new TaskChangesRequest();
+        changes.setStatus(TaskStatus.COMPLETED);
+        request.setChanges(changes);
+        when(taskRepo.updateTasks(any(), eq(TaskStatus.COMPLETED), isNull(), isNull())).thenReturn(List.of(state));
+
+        assertEquals(1, taskService.updateTasks(request));
+
+        verify(eventPublisher, times(1)).publishEvent(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, 7,
+                new TaskSnapshot("Fix bug", null, TaskStatus.PENDING, TaskPriority.HIGH, 1, "John", 2, "Alex"),
+                new TaskSnapshot("Fix bug", null, TaskStatus.COMPLETED, TaskPriority.HIGH, 1, "John", 2, "Alex")));
+        verifyNoMoreInteractions(eventPublisher);
+    }
 }
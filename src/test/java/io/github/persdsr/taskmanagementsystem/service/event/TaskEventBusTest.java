@@ -0,0 +1,201 @@
+package io.github.persdsr.taskmanagementsystem.service.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskEventBusTest {
+
+    private MeterRegistry meterRegistry;
+
+    private MockEnvironment environment;
+
+    private TaskEventBus bus;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        environment = new MockEnvironment();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    void publish_DeliversEventsToEveryConsumer() throws InterruptedException {
+        RecordingConsumer first = new RecordingConsumer("first", 1, 2);
+        RecordingConsumer second = new RecordingConsumer("second", 1, 2);
+        bus = bus(TaskEventBus.Backpressure.DROP, 8, first, second);
+
+        bus.onCommitted(new TaskCommentedEvent(3, 6L, "Alex"));
+        bus.onCommitted(new TaskCommentedEvent(1, 7L, "John"));
+
+        assertTrue(first.delivered.await(5, TimeUnit.SECONDS));
+        assertTrue(second.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(new TaskCommentedEvent(3, 6L, "Alex"), new TaskCommentedEvent(1, 7L, "John")), first.events());
+        assertEquals(first.events(), second.events());
+    }
+
+    @Test
+    void publish_SeveralThreads_KeepsOrderPerTask() throws InterruptedException {
+        environment.setProperty("slay.app.events.threads.sharded", "4");
+        RecordingConsumer consumer = new RecordingConsumer("sharded", 1, 1000);
+        bus = bus(TaskEventBus.Backpressure.BLOCK, 64, consumer);
+
+        for (int i = 0; i < 100; i++) {
+            for (int taskId = 1; taskId <= 10; taskId++) {
+                bus.publish(new TaskCommentedEvent(taskId, (long) i, "John"));
+            }
+        }
+
+        assertTrue(consumer.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(4, consumer.threadNames.size());
+        for (int taskId = 1; taskId <= 10; taskId++) {
+            int id = taskId;
+            List<Long> comments = consumer.events().stream()
+                    .map(TaskCommentedEvent.class::cast)
+                    .filter(event -> event.taskId() == id)
+                    .map(TaskCommentedEvent::commentId)
+                    .toList();
+            assertEquals(100, comments.size());
+            for (int i = 0; i < comments.size(); i++) {
+                assertEquals(i, comments.get(i));
+            }
+        }
+    }
+
+    @Test
+    void publish_BufferFull_DropsEventsAndAsksConsumersToResync() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingConsumer consumer = new RecordingConsumer("slow", 1, 1) {
+            @Override
+            public void onEvent(TaskEvent event) {
+                super.onEvent(event);
+                entered.countDown();
+                await(release);
+            }
+        };
+        bus = bus(TaskEventBus.Backpressure.DROP, 4, consumer);
+
+        // Drops only start once the consumer is stuck on the first event, so they are all resynced at once
+        bus.publish(new TaskCommentedEvent(1, 0L, "John"));
+        await(entered);
+        long start = System.nanoTime();
+        for (int i = 1; i < 20; i++) {
+            bus.publish(new TaskCommentedEvent(1, (long) i, "John"));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "Publishing waited for the consumer");
+
+        double dropped = meterRegistry.get("task.events.dropped").counter().count();
+        assertTrue(dropped >= 20 - 4 - 1, "Dropped " + dropped);
+        assertTrue(lag("slow") > 0);
+
+        release.countDown();
+        waitUntil(() -> lag("slow") == 0);
+
+        assertEquals(1, consumer.resyncs.get());
+        assertEquals(4, consumer.events().size());
+    }
+
+    @Test
+    void publish_WithoutConsumers_DoesNothing() {
+        bus = bus(TaskEventBus.Backpressure.DROP, 4);
+
+        bus.publish(new TaskCommentedEvent(1, 1L, "John"));
+
+        assertEquals(0, meterRegistry.get("task.events.dropped").counter().count());
+    }
+
+    private TaskEventBus bus(TaskEventBus.Backpressure backpressure, int bufferSize, TaskEventConsumer... consumers) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        for (TaskEventConsumer consumer : consumers) {
+            beanFactory.addBean(consumer.name(), consumer);
+        }
+        return new TaskEventBus(beanFactory.getBeanProvider(TaskEventConsumer.class), meterRegistry, environment,
+                bufferSize, backpressure, Duration.ofSeconds(1));
+    }
+
+    private double lag(String consumer) {
+        return meterRegistry.get("task.events.lag").tag("consumer", consumer).gauge().value();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingConsumer implements TaskEventConsumer {
+
+        private final String name;
+        private final int threads;
+        private final List<TaskEvent> events = new CopyOnWriteArrayList<>();
+        private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger resyncs = new AtomicInteger();
+        private final CountDownLatch delivered;
+
+        RecordingConsumer(String name, int threads, int expected) {
+            this.name = name;
+            this.threads = threads;
+            this.delivered = new CountDownLatch(expected);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public int threads() {
+            return threads;
+        }
+
+        @Override
+        public void onEvent(TaskEvent event) {
+            threadNames.add(Thread.currentThread().getName());
+            events.add(event);
+            delivered.countDown();
+        }
+
+        @Override
+        public void onEventsDropped() {
+            resyncs.incrementAndGet();
+        }
+
+        List<TaskEvent> events() {
+            return new ArrayList<>(events);
+        }
+    }
+}
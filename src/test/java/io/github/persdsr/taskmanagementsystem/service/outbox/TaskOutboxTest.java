@@ -0,0 +1,181 @@
+package io.github.persdsr.taskmanagementsystem.service.outbox;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskCommentedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "slay.app.outbox.batch-size=2"
+})
+@Import({TaskOutbox.class, TaskOutboxRelay.class, TaskOutboxTest.Config.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Sql(scripts = "classpath:db/migration/V5__task_outbox.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TaskOutboxTest {
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /**
+     * Stub sink keeping the messages, failing on demand.
+     */
+    static class RecordingSink implements OutboxSink {
+
+        private final List<OutboxMessage> messages = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+
+        @Override
+        public void send(List<OutboxMessage> batch) throws Exception {
+            if (failing) {
+                throw new Exception("Broker unavailable");
+            }
+            messages.addAll(batch);
+        }
+    }
+
+    @Autowired
+    private TaskOutbox outbox;
+
+    @Autowired
+    private TaskOutboxRelay relay;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("delete from task_outbox");
+        sink.messages.clear();
+        sink.failing = false;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void onTaskEvent_WritesRowsOnlyWhenTheTransactionCommits() {
+        transactionTemplate.executeWithoutResult(transaction -> {
+            outbox.onTaskEvent(new TaskCommentedEvent(1, 10L, "john"));
+            outbox.onTaskEvent(TaskChangedEvent.created(3,
+                    new TaskSnapshot("Fix bug", null, TaskStatus.PENDING, TaskPriority.HIGH, 1, "john", null, null)));
+            assertEquals(0, count(), "Rows are written right before the commit");
+        });
+        transactionTemplate.executeWithoutResult(transaction -> {
+            outbox.onTaskEvent(new TaskCommentedEvent(2, 11L, "john"));
+            transaction.setRollbackOnly();
+        });
+
+        assertEquals(2, count());
+        assertEquals(List.of("TASK_COMMENTED", "TASK_CREATED"),
+                jdbcTemplate.queryForList("select type from task_outbox order by id", String.class));
+        assertEquals("{\"taskId\":1,\"commentId\":10,\"author\":\"john\"}",
+                jdbcTemplate.queryForObject("select payload from task_outbox where task_id = 1", String.class));
+    }
+
+    @Test
+    void relay_SendsEverythingInOrderAndDeletesIt() {
+        for (int i = 1; i <= 5; i++) {
+            outbox.onTaskEvent(new TaskCommentedEvent(i, (long) i, "john"));
+        }
+
+        assertEquals(5, relay.relay());
+
+        assertEquals(List.of(1, 2, 3, 4, 5), sink.messages.stream().map(OutboxMessage::taskId).toList());
+        assertEquals(0, count());
+    }
+
+    @Test
+    void relay_SinkFails_KeepsMessagesForTheNextPoll() {
+        outbox.onTaskEvent(new TaskCommentedEvent(1, 1L, "john"));
+        sink.failing = true;
+
+        assertEquals(0, relay.relay());
+        assertEquals(1, count());
+
+        sink.failing = false;
+        assertEquals(1, relay.relay());
+        assertEquals(0, count());
+    }
+
+    @Test
+    void relay_SkipsRowsLockedByAnotherInstance() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            outbox.onTaskEvent(new TaskCommentedEvent(i, (long) i, "john"));
+        }
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<Integer>> other = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(transaction -> {
+                    List<Integer> taskIds = jdbcTemplate.queryForList(
+                            "select task_id from task_outbox order by id limit 2 for update skip locked", Integer.class);
+                    locked.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return taskIds;
+                }));
+
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+        int sent = relay.relay();
+        release.countDown();
+
+        assertEquals(List.of(1, 2), other.get(5, TimeUnit.SECONDS));
+        assertEquals(2, sent);
+        assertEquals(List.of(3, 4), sink.messages.stream().map(OutboxMessage::taskId).toList());
+        assertEquals(2, count());
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("select count(*) from task_outbox", Integer.class);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.persdsr.taskmanagementsystem.service.search;
+
+import io.github.persdsr.taskmanagementsystem.entity.TaskEntity;
+import io.github.persdsr.taskmanagementsystem.model.TaskField;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskDTO;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryTaskSearchIndexTest {
+
+    private static final Set<TaskField> ALL_FIELDS = EnumSet.allOf(TaskField.class);
+
+    @Mock
+    private TaskRepo taskRepo;
+
+    private InMemoryTaskSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        searchIndex = new InMemoryTaskSearchIndex(taskRepo, 2);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_ReadsTasksInChunks() {
+        when(taskRepo.findTaskViews(any(Specification.class), any(), anyLong(), anyInt()))
+                .thenReturn(List.of(view(1, "Fix login"), view(2, "Fix logout")))
+                .thenReturn(List.of(view(3, "Fix signup")));
+
+        searchIndex.afterSingletonsInstantiated();
+
+        verify(taskRepo, times(2)).findTaskViews(any(Specification.class), any(), eq(0L), eq(2));
+        stubViews(1, 2, 3);
+        assertEquals(List.of(1, 2, 3), ids(searchIndex.search("fix", Specification.where(null), ALL_FIELDS, null, null, 10)));
+    }
+
+    @Test
+    void search_ContinuesAfterCursorAndSkipsFilteredTasks() {
+        searchIndex.onTaskChanged(created(1, "Fix login"));
+        searchIndex.onTaskChanged(created(2, "Fix logout"));
+        searchIndex.onTaskChanged(created(3, "Fix signup"));
+        searchIndex.onTaskChanged(created(4, "Fix billing"));
+        // Task 3 is filtered out or already gone from the database
+        stubViews(2, 4);
+
+        List<TaskDTO> tasks = searchIndex.search("fix", Specification.where(null), ALL_FIELDS, 1.0f, 1, 2);
+
+        assertEquals(List.of(2, 4), ids(tasks));
+        assertEquals(1.0f, tasks.get(0).getRank());
+    }
+
+    @Test
+    void onTaskChanged_Deleted_RemovesTask() {
+        searchIndex.onTaskChanged(created(1, "Fix login"));
+        searchIndex.onTaskChanged(TaskChangedEvent.deleted(TaskEntity.builder().id(1).build()));
+
+        assertEquals(List.of(), searchIndex.search("fix", Specification.where(null), ALL_FIELDS, null, null, 10));
+        verify(taskRepo, never()).findTaskViews(any(Specification.class), any(), anyLong(), anyInt());
+    }
+
+    private void stubViews(int... ids) {
+        when(taskRepo.findTaskViews(any(Specification.class), eq(ALL_FIELDS), eq(0L), anyInt()))
+                .thenReturn(Arrays.stream(ids).mapToObj(id -> view(id, null)).toList());
+    }
+
+    private static TaskChangedEvent created(int id, String title) {
+        TaskEntity task = TaskEntity.builder().id(id).title(title).build();
+        return TaskChangedEvent.created(task);
+    }
+
+    private static TaskDTO view(int id, String title) {
+        TaskDTO view = new TaskDTO();
+        view.setId(id);
+        view.setTitle(title);
+        return view;
+    }
+
+    private static List<Integer> ids(List<TaskDTO> tasks) {
+        return tasks.stream().map(TaskDTO::getId).toList();
+    }
+}
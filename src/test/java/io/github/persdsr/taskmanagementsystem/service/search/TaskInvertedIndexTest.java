@@ -0,0 +1,105 @@
+package io.github.persdsr.taskmanagementsystem.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskInvertedIndexTest {
+
+    private TaskInvertedIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TaskInvertedIndex();
+        index.putAll(List.of(
+                TaskInvertedIndex.Document.of(1, "Update documentation", "Describe the authentication flow"),
+                TaskInvertedIndex.Document.of(2, "Fix bug in authentication", "Fix the bug in the login endpoint"),
+                TaskInvertedIndex.Document.of(3, "Release", "Ship the authentication fix"),
+                TaskInvertedIndex.Document.of(4, "Refactor billing", null)));
+    }
+
+    @Test
+    void search_AllWordsMustMatch() {
+        assertEquals(List.of(2), ids("bug authentication"));
+    }
+
+    @Test
+    void search_RanksTitleMatchesFirst() {
+        List<TaskInvertedIndex.Hit> hits = index.search("authentication");
+
+        assertEquals(List.of(2, 1, 3), hits.stream().map(TaskInvertedIndex.Hit::id).toList());
+        assertEquals(TaskInvertedIndex.TITLE_WEIGHT, hits.get(0).rank());
+        assertEquals(TaskInvertedIndex.DESCRIPTION_WEIGHT, hits.get(1).rank());
+    }
+
+    @Test
+    void search_OrSeparatesAlternatives() {
+        assertEquals(List.of(3, 4), ids("release OR billing"));
+    }
+
+    @Test
+    void search_MinusExcludesWord() {
+        assertEquals(List.of(2, 3), ids("authentication -documentation"));
+    }
+
+    @Test
+    void search_StarMatchesPrefix() {
+        assertEquals(List.of(2, 1, 3), ids("authent*"));
+        assertEquals(List.of(), ids("authent"));
+    }
+
+    @Test
+    void search_IgnoresCaseAndPunctuation() {
+        assertEquals(List.of(2), ids("\"LOGIN endpoint!\""));
+    }
+
+    @Test
+    void search_OnlyExcludedWords_MatchesNothing() {
+        assertEquals(List.of(), ids("-billing"));
+    }
+
+    @Test
+    void put_ExistingTask_ReplacesItsTerms() {
+        index.put(4, "Refactor invoices", "Billing moves to the new service");
+
+        assertEquals(List.of(4), ids("invoices"));
+        assertEquals(TaskInvertedIndex.DESCRIPTION_WEIGHT, index.search("billing").get(0).rank());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void put_OutOfOrder_KeepsPostingsSorted() {
+        index.put(10, "Shared word", null);
+        index.put(7, "Shared word", null);
+        index.put(8, "Shared word", null);
+
+        assertEquals(List.of(7, 8, 10), ids("shared"));
+    }
+
+    @Test
+    void remove_DropsTaskFromResults() {
+        index.remove(2);
+
+        assertEquals(List.of(1, 3), ids("authentication"));
+        assertEquals(List.of(), ids("login"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void setOperations_MergeSortedArrays() {
+        int[] even = IntStream.rangeClosed(0, 10).filter(i -> i % 2 == 0).toArray();
+        int[] small = IntStream.rangeClosed(0, 5).toArray();
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 8, 10}, TaskInvertedIndex.union(even, small));
+        assertArrayEquals(new int[]{0, 2, 4}, TaskInvertedIndex.intersect(even, small));
+        assertArrayEquals(new int[]{6, 8, 10}, TaskInvertedIndex.difference(even, small));
+    }
+
+    private List<Integer> ids(String query) {
+        return index.search(query).stream().map(TaskInvertedIndex.Hit::id).toList();
+    }
+}
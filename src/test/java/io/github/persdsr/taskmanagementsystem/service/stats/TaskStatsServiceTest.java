@@ -0,0 +1,146 @@
+package io.github.persdsr.taskmanagementsystem.service.stats;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.model.dto.task.TaskStatsDTO;
+import io.github.persdsr.taskmanagementsystem.repository.TaskCount;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskStatsServiceTest {
+
+    @Mock
+    private TaskRepo taskRepo;
+
+    private MeterRegistry meterRegistry;
+
+    private TaskStatsService taskStatsService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        taskStatsService = new TaskStatsService(taskRepo, meterRegistry);
+        when(taskRepo.countByPerformerStatusAndPriority()).thenReturn(List.of(
+                count("Alex", TaskStatus.PENDING, TaskPriority.HIGH, 2),
+                count(null, TaskStatus.PENDING, TaskPriority.LOW, 1)));
+        taskStatsService.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void getStats_ReturnsCountsLoadedAtStartup() {
+        TaskStatsDTO stats = taskStatsService.getStats(null);
+
+        assertEquals(3, stats.getTotal());
+        assertEquals(List.of(
+                new TaskStatsDTO.Count(null, "PENDING", "LOW", 1),
+                new TaskStatsDTO.Count("Alex", "PENDING", "HIGH", 2)), stats.getCounts());
+    }
+
+    @Test
+    void onEvent_TaskChanged_MovesTheTaskBetweenCounts() {
+        taskStatsService.onEvent(TaskChangedEvent.created(1, snapshot("Bob", TaskStatus.PENDING)));
+        taskStatsService.onEvent(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, 2,
+                snapshot("Alex", TaskStatus.PENDING), snapshot("Alex", TaskStatus.COMPLETED)));
+        taskStatsService.onEvent(new TaskChangedEvent(TaskChangedEvent.Type.DELETED, 3,
+                snapshot("Alex", TaskStatus.PENDING), null));
+
+        assertEquals(List.of(new TaskStatsDTO.Count("Alex", "COMPLETED", "HIGH", 1)),
+                taskStatsService.getStats("Alex").getCounts());
+        assertEquals(List.of(new TaskStatsDTO.Count("Bob", "PENDING", "HIGH", 1)),
+                taskStatsService.getStats("Bob").getCounts());
+        assertEquals(3, taskStatsService.getStats(null).getTotal());
+    }
+
+    @Test
+    void onEvent_BulkUpdate_AppliesPerTaskChangesWithoutRecounting() {
+        for (int id = 1; id <= 2; id++) {
+            taskStatsService.onEvent(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, id,
+                    snapshot("Alex", TaskStatus.PENDING), snapshot("Alex", TaskStatus.IN_PROGRESS)));
+        }
+
+        assertEquals(List.of(new TaskStatsDTO.Count("Alex", "IN_PROGRESS", "HIGH", 2)),
+                taskStatsService.getStats("Alex").getCounts());
+        verify(taskRepo, times(1)).countByPerformerStatusAndPriority();
+    }
+
+    @Test
+    void getStats_TaskWithoutStatusOrPriority_IsCountedAsNone() {
+        taskStatsService.onEvent(TaskChangedEvent.created(1,
+                new TaskSnapshot("Fix bug", null, null, null, 1, "John", null, null)));
+        taskStatsService.onEvent(TaskChangedEvent.created(2,
+                new TaskSnapshot("Fix bug", null, TaskStatus.PENDING, null, 1, "John", null, null)));
+
+        assertEquals(List.of(
+                new TaskStatsDTO.Count(null, "PENDING", "LOW", 1),
+                new TaskStatsDTO.Count(null, "PENDING", TaskStatsService.NONE, 1),
+                new TaskStatsDTO.Count(null, TaskStatsService.NONE, TaskStatsService.NONE, 1),
+                new TaskStatsDTO.Count("Alex", "PENDING", "HIGH", 2)), taskStatsService.getStats(null).getCounts());
+    }
+
+    @Test
+    void onEventsDropped_RecountsFromTheDatabase() {
+        when(taskRepo.countByPerformerStatusAndPriority()).thenReturn(List.of(
+                count("Alex", TaskStatus.COMPLETED, TaskPriority.HIGH, 3)));
+
+        taskStatsService.onEventsDropped();
+
+        assertEquals(List.of(new TaskStatsDTO.Count("Alex", "COMPLETED", "HIGH", 3)),
+                taskStatsService.getStats(null).getCounts());
+    }
+
+    @Test
+    void reconcile_CountsDriftedCounters() {
+        taskStatsService.onEvent(TaskChangedEvent.created(1, snapshot("Bob", TaskStatus.PENDING)));
+        taskStatsService.reconcile();
+
+        // The database no longer has the created task, e.g. it was deleted around the application
+        assertEquals(1, meterRegistry.get("task.stats.corrected").counter().count());
+        assertEquals(3, taskStatsService.getStats(null).getTotal());
+
+        taskStatsService.reconcile();
+        assertEquals(1, meterRegistry.get("task.stats.corrected").counter().count());
+    }
+
+    private static TaskSnapshot snapshot(String performer, TaskStatus status) {
+        return new TaskSnapshot("Fix bug", null, status, TaskPriority.HIGH, 1, "John",
+                performer == null ? null : 2, performer);
+    }
+
+    private static TaskCount count(String performer, TaskStatus status, TaskPriority priority, long count) {
+        return new TaskCount() {
+            @Override
+            public String getPerformer() {
+                return performer;
+            }
+
+            @Override
+            public TaskStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public TaskPriority getPriority() {
+                return priority;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+}
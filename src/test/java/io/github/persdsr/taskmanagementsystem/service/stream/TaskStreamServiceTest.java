@@ -0,0 +1,227 @@
+package io.github.persdsr.taskmanagementsystem.service.stream;
+
+import io.github.persdsr.taskmanagementsystem.model.TaskPriority;
+import io.github.persdsr.taskmanagementsystem.model.TaskStatus;
+import io.github.persdsr.taskmanagementsystem.repository.TaskParticipants;
+import io.github.persdsr.taskmanagementsystem.repository.TaskRepo;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskChangedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskCommentedEvent;
+import io.github.persdsr.taskmanagementsystem.service.event.TaskSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskStreamServiceTest {
+
+    private static final int BUFFER_SIZE = 4;
+
+    private static final int JOHN = 1;
+
+    private static final int ALEX = 2;
+
+    private static final int BOB = 3;
+
+    private static final int EVE = 4;
+
+    @Mock
+    private TaskRepo taskRepo;
+
+    private MeterRegistry meterRegistry;
+
+    private TaskStreamService taskStreamService;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        taskStreamService = new TaskStreamService(taskRepo, meterRegistry, BUFFER_SIZE, 2, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskStreamService.stop();
+    }
+
+    @Test
+    void onEvent_TaskChanged_ReachesAuthorAndPerformersBeforeAndAfter() throws InterruptedException {
+        RecordingEmitter john = register(JOHN);
+        RecordingEmitter alex = register(ALEX);
+        RecordingEmitter bob = register(BOB);
+        RecordingEmitter eve = register(EVE);
+
+        taskStreamService.onEvent(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, 1,
+                snapshot(JOHN, ALEX), snapshot(JOHN, BOB)));
+
+        waitUntil(() -> john.sent().size() == 2 && alex.sent().size() == 2 && bob.sent().size() == 2);
+        assertTrue(john.sent().get(1).contains("event:TASK_UPDATED"));
+        assertTrue(john.sent().get(1).contains("taskId=1"));
+        assertEquals(List.of(":connected"), eve.sent().stream().map(String::trim).toList());
+    }
+
+    @Test
+    void onEvent_UserRenamedAfterSubscribing_StillReachesTheStream() throws InterruptedException {
+        RecordingEmitter john = register(JOHN);
+
+        taskStreamService.onEvent(TaskChangedEvent.created(1, snapshot(JOHN, "johnny", null)));
+
+        waitUntil(() -> john.sent().size() == 2);
+        assertTrue(john.sent().get(1).contains("author=johnny"));
+    }
+
+    @Test
+    void onEvent_TaskCommented_LooksUpParticipantsOnlyWhenSomeoneListens() throws InterruptedException {
+        taskStreamService.onEvent(new TaskCommentedEvent(1, 7L, "John"));
+        verifyNoInteractions(taskRepo);
+
+        RecordingEmitter alex = register(ALEX);
+        TaskParticipants participants = mock(TaskParticipants.class);
+        when(participants.getAuthorId()).thenReturn(JOHN);
+        when(participants.getPerformerId()).thenReturn(ALEX);
+        when(taskRepo.findParticipantsById(1)).thenReturn(Optional.of(participants));
+
+        taskStreamService.onEvent(new TaskCommentedEvent(1, 7L, "John"));
+
+        waitUntil(() -> alex.sent().size() == 2);
+        assertTrue(alex.sent().get(1).contains("event:TASK_COMMENTED"));
+    }
+
+    @Test
+    void onEventsDropped_AsksEveryoneToResync() throws InterruptedException {
+        RecordingEmitter john = register(JOHN);
+        RecordingEmitter alex = register(ALEX);
+
+        taskStreamService.onEventsDropped();
+        taskStreamService.sendHeartbeats();
+
+        waitUntil(() -> john.sent().size() == 3 && alex.sent().size() == 3);
+        assertTrue(alex.sent().get(1).contains("event:" + TaskStreamService.RESYNC));
+        assertEquals(":heartbeat", alex.sent().get(2).trim());
+    }
+
+    @Test
+    void onEvent_SlowClient_IsEvictedWithoutDelayingOthers() throws InterruptedException {
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        taskStreamService.register(JOHN, slow);
+        RecordingEmitter fast = register(JOHN);
+        assertEquals(2, taskStreamService.connectionCount());
+
+        // The stuck client holds one writer thread, the other keeps serving the fast client
+        for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+            taskStreamService.onEvent(TaskChangedEvent.created(i, snapshot(JOHN, null)));
+            int delivered = i + 2;
+            waitUntil(() -> fast.sent().size() == delivered);
+        }
+
+        assertEquals(1, taskStreamService.connectionCount());
+        assertEquals(1, meterRegistry.get("task.stream.evicted").counter().count());
+        assertTrue(slow.completed);
+        stuck.countDown();
+    }
+
+    @Test
+    void register_ClientGoesAway_RemovesConnection() throws InterruptedException {
+        RecordingEmitter john = register(JOHN);
+        waitUntil(() -> john.sent().size() == 1);
+        john.failing = true;
+
+        taskStreamService.onEvent(TaskChangedEvent.created(1, snapshot(JOHN, null)));
+        waitUntil(() -> john.attempts > 1);
+        john.completionCallback.run();
+
+        assertEquals(0, taskStreamService.connectionCount());
+        assertEquals(0.0, meterRegistry.get("task.stream.connections").gauge().value());
+    }
+
+    private RecordingEmitter register(int userId) {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        taskStreamService.register(userId, emitter);
+        return emitter;
+    }
+
+    private static TaskSnapshot snapshot(int authorId, Integer performerId) {
+        return snapshot(authorId, "user" + authorId, performerId);
+    }
+
+    private static TaskSnapshot snapshot(int authorId, String author, Integer performerId) {
+        return new TaskSnapshot("Fix bug", null, TaskStatus.PENDING, TaskPriority.HIGH, authorId, author,
+                performerId, performerId == null ? null : "user" + performerId);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Emitter keeping what would be written to the response, optionally stuck on the first write
+     * like a client that stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch stuck;
+        private volatile boolean failing;
+        private volatile boolean completed;
+        private volatile int attempts;
+        private volatile Runnable completionCallback;
+
+        RecordingEmitter(CountDownLatch stuck) {
+            this.stuck = stuck;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts++;
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining()));
+            if (stuck != null) {
+                try {
+                    stuck.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            completionCallback = callback;
+        }
+
+        List<String> sent() {
+            return sent;
+        }
+    }
+}